@@ -2,16 +2,40 @@ package org.example.sortingApplication;
 
 import org.example.sortingApplication.domain.Bus;
 import org.example.sortingApplication.domain.BusCollection;
+import org.example.sortingApplication.service.ExternalSortService;
 import org.example.sortingApplication.service.FileService;
 import org.example.sortingApplication.service.InputService;
+import org.example.sortingApplication.service.KSortedStreamService;
 import org.example.sortingApplication.service.SortingService;
+import org.example.sortingApplication.service.TopKService;
+import org.example.sortingApplication.strategy.AbbreviatedKeySortStrategy;
+import org.example.sortingApplication.strategy.AdaptiveSortStrategy;
 import org.example.sortingApplication.strategy.EvenTimSortStrategy;
+import org.example.sortingApplication.strategy.InPlaceMergeSortStrategy;
+import org.example.sortingApplication.strategy.LazySortedView;
+import org.example.sortingApplication.strategy.MileageRadixSortStrategy;
+import org.example.sortingApplication.strategy.NormalizedKeySortStrategy;
+import org.example.sortingApplication.strategy.ParallelTimSortStrategy;
+import org.example.sortingApplication.strategy.PartitionBucketSortStrategy;
+import org.example.sortingApplication.strategy.SortCancelledException;
+import org.example.sortingApplication.strategy.SortControl;
 import org.example.sortingApplication.strategy.SortStrategy;
+import org.example.sortingApplication.strategy.StringRadixSortStrategy;
 import org.example.sortingApplication.strategy.TimSortStrategy;
 import org.example.sortingApplication.util.BusComparator;
 import org.example.sortingApplication.util.InitComparator;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 
 public class Main {
 
@@ -25,8 +49,11 @@ public class Main {
     private static InputService inputService = new InputService();
     private static FileService fileService = new FileService();
 
-    private static SortingService sortingService = new SortingService();
+    // отдельный пул для параллельной сортировки, чтобы не занимать общий ForkJoinPool
+    private static ForkJoinPool sortPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private static SortingService sortingService = new SortingService(sortPool);
     private static InitComparator initComparator = new InitComparator();
+    private static final int PAGE_SIZE = 50; // автобусов на одной странице вывода
 
     public static void main(String[] args) {
         boolean running = true;
@@ -54,6 +81,7 @@ public class Main {
             }
         }
         scanner.close();
+        sortPool.shutdown();
     }
 
     private static void printMainMenu() {
@@ -90,33 +118,240 @@ public class Main {
         System.out.print("Введите имя файла: ");
         scanner.nextLine();
         String filename = scanner.nextLine();
+        if (ExternalSortService.isTooLargeForHeap(filename)) {
+            handleExternalSort(filename);
+            return;
+        }
         BusCollection collection = inputService.createCollectionFromFile(filename);
         processCollection(collection);
     }
 
+    /**
+     * Файл не поместится в память: сортируем его на диске сразу в выходной файл
+     */
+    private static void handleExternalSort(String filename) {
+        System.out.println("Файл слишком большой для памяти (примерно "
+                + ExternalSortService.estimateHeapSize(filename) / (1024 * 1024) + " МБ), обрабатываем его без загрузки в память");
+        System.out.println("1. Отсортировать весь файл в другой файл");
+        System.out.println("2. Только первые K автобусов");
+        System.out.println("3. Файл почти отсортирован: каждый автобус не дальше K строк от своего места");
+        System.out.print("Выберите пункт: ");
+        String choice = scanner.next();
+        if (choice.equals("3")) {
+            handleKSortedFile(filename);
+            return;
+        }
+        if (choice.equals("2")) {
+            BusComparator comparator = initComparator.init(scanner);
+            TopKService topKService = comparator == null ? null : createTopKService(comparator);
+            if (topKService != null) {
+                try {
+                    printTopK(topKService.selectFromFile(filename));
+                } catch (IOException e) {
+                    System.out.println("Ошибка чтения файла: " + e.getMessage());
+                }
+            }
+            return;
+        }
+
+        System.out.print("Введите имя выходного файла: ");
+        String outputFile = scanner.next();
+        BusComparator comparator = initComparator.init(scanner);
+        if (comparator == null) {
+            return;
+        }
+
+        ExternalSortService externalSortService = new ExternalSortService();
+        try {
+            long count = externalSortService.sort(filename, outputFile, comparator);
+            System.out.println("Отсортировано автобусов: " + count + ", серий на диске: "
+                    + externalSortService.getLastRunCount() + ". Результат в файле: " + outputFile);
+        } catch (IOException e) {
+            System.out.println("Ошибка внешней сортировки: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Почти отсортированный файл сортируется потоком через кучу из K автобусов;
+     * если граница K нарушена, файл сортируется заново внешней сортировкой
+     */
+    private static void handleKSortedFile(String filename) {
+        System.out.print("Введите имя выходного файла: ");
+        String outputFile = scanner.next();
+        System.out.print("Насколько далеко (K строк) автобус может стоять от своего места? ");
+        String k = scanner.next();
+        if (!k.matches("\\d{1,8}")) {
+            System.out.println("Нужно целое неотрицательное число");
+            return;
+        }
+        BusComparator comparator = initComparator.init(scanner);
+        if (comparator == null) {
+            return;
+        }
+
+        try {
+            long count = new KSortedStreamService(comparator, Integer.parseInt(k)).sortFile(filename, outputFile);
+            System.out.println("Отсортировано автобусов: " + count + ". Результат в файле: " + outputFile);
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage() + ". Выполняем полную внешнюю сортировку");
+            try {
+                long count = new ExternalSortService().sort(filename, outputFile, comparator);
+                System.out.println("Отсортировано автобусов: " + count + ". Результат в файле: " + outputFile);
+            } catch (IOException ioException) {
+                System.out.println("Ошибка внешней сортировки: " + ioException.getMessage());
+            }
+        } catch (IOException e) {
+            System.out.println("Ошибка чтения файла: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Сортирует коллекцию в отдельном потоке, а этот поток ждёт Enter в консоли:
+     * нажатие отменяет сортировку через control
+     *
+     * @throws SortCancelledException если сортировку отменили или истёк лимит времени
+     */
+    private static void sortCancellable(BusCollection collection, BusComparator sortedBy, SortControl control) {
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            sortingService.sortCollection(collection, sortedBy, control);
+            return null;
+        });
+        new Thread(task, "bus-sort").start();
+        System.out.println("Сортировка запущена, Enter - отменить");
+        boolean console = true;
+        try {
+            while (true) {
+                try {
+                    task.get(100, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    // Enter оставляет в System.in перевод строки; его потом пропустит scanner.next()
+                    if (console && !control.isCancelled()) {
+                        try {
+                            if (System.in.available() > 0) {
+                                control.cancel();
+                            }
+                        } catch (IOException ioException) {
+                            console = false; // консоль недоступна - остаётся только лимит времени
+                        }
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            control.cancel();
+            Thread.currentThread().interrupt();
+            throw new SortCancelledException("Сортировка прервана", false);
+        }
+    }
+
+    /**
+     * Лимит времени сортировки и вывод хода работы каждые 10%
+     */
+    private static SortControl createSortControl() {
+        System.out.print("Лимит времени сортировки в секундах (0 - без ограничения): ");
+        String seconds = scanner.next();
+        if (!seconds.matches("\\d{1,6}")) {
+            System.out.println("Нужно целое неотрицательное число");
+            return null;
+        }
+        Duration timeLimit = seconds.equals("0") ? null : Duration.ofSeconds(Long.parseLong(seconds));
+
+        int[] lastPercent = {0};
+        return new SortControl(timeLimit, (done, total) -> {
+            int percent = (int) (100 * done / Math.max(1, total));
+            if (percent >= lastPercent[0] + 10) {
+                lastPercent[0] = percent - percent % 10;
+                System.out.println("Сортировка: " + lastPercent[0] + "%");
+            }
+        });
+    }
+
+    private static TopKService createTopKService(BusComparator comparator) {
+        System.out.print("Сколько первых автобусов вывести? ");
+        String k = scanner.next();
+        if (!k.matches("[1-9]\\d{0,8}")) {
+            System.out.println("Нужно целое положительное число");
+            return null;
+        }
+        System.out.print("Добавить автобусы, равные последнему из них? (да/нет): ");
+        boolean includeTies = scanner.next().equalsIgnoreCase("да");
+        return new TopKService(comparator, Integer.parseInt(k), includeTies);
+    }
+
+    private static void printTopK(List<Bus> buses) {
+        System.out.println("Первые автобусы (" + buses.size() + ")");
+        for (Bus bus : buses) {
+            System.out.println(bus);
+        }
+    }
+
+    /**
+     * Выводит список по страницам из PAGE_SIZE автобусов, следующая - по запросу
+     */
+    private static void printPages(int size, BiFunction<Integer, Integer, List<Bus>> pages) {
+        for (int from = 0; from < size; from += PAGE_SIZE) {
+            for (Bus bus : pages.apply(from, PAGE_SIZE)) {
+                System.out.println(bus);
+            }
+            int to = Math.min(from + PAGE_SIZE, size);
+            if (to == size) {
+                break;
+            }
+            System.out.print("Показано " + to + " из " + size + ". Следующая страница? (да/нет): ");
+            if (!scanner.next().equalsIgnoreCase("да")) {
+                break;
+            }
+        }
+    }
+
+    private static List<Bus> collectionPage(BusCollection collection, int from, int count) {
+        int to = Math.min(from + count, collection.size());
+        List<Bus> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(collection.get(i));
+        }
+        return page;
+    }
+
     private static void processCollection(BusCollection collection) {
 
         System.out.println("Коллекция создана, размер: " + collection.size());
         // Временный вывод для демонстрации
-         for (Bus bus : collection) {
-                    System.out.println(bus);
-                }
+        printPages(collection.size(), (from, count) -> collectionPage(collection, from, count));
          boolean running = true;
         while (running) {
             System.out.println("Как бы вы хотели сортировать ваш список?");
             System.out.println("1. TimSort");
             System.out.println("2. TimSort, но только для четных элементов (доп. задание)");
-            System.out.println("3. назад");
+            System.out.println("3. Параллельный TimSort (потоков: " + sortPool.getParallelism() + ")");
+            System.out.println("4. Поразрядная сортировка (если первое поле - пробег)");
+            System.out.println("5. Поразрядная сортировка (если первое поле - номер или модель)");
+            System.out.println("6. Сортировка по нормализованным ключам (без вызовов компаратора)");
+            System.out.println("7. Слияние на месте (почти без доп. памяти: буфер ~sqrt(n), для машин с малой памятью)");
+            System.out.println("8. Автоматический выбор алгоритма по данным");
+            System.out.println("9. Только первые K автобусов (без сортировки всего списка)");
+            System.out.println("10. Постраничный просмотр в отсортированном порядке (сортируется только просмотренное)");
+            System.out.println("11. Сортировка с префиксами ключей (быстрее, если первое поле - номер или модель)");
+            System.out.println("12. Раскладка по первому полю и параллельная сортировка (если у первого поля мало значений)");
+            System.out.println("13. назад");
             System.out.print("Выберите пункт: ");
 
             String choice = scanner.next();
 
-            if (!choice.matches("[1-3]")) {
-                System.out.println("Можно вводить только числа от 1 до 3");
+            if (!choice.matches("[1-9]|1[0-3]")) {
+                System.out.println("Можно вводить только числа от 1 до 13");
                 continue;
             }
 
-            if (choice.equals("3")) {
+            if (choice.equals("13")) {
                 running=false;
                 continue;
             }
@@ -130,25 +365,79 @@ public class Main {
                 continue;
             }
 
+            if (choice.equals("9")) {
+                TopKService topKService = createTopKService(comparator);
+                if (topKService != null) {
+                    printTopK(topKService.select(collection.iterator()));
+                }
+                continue;
+            }
+
+            if (choice.equals("10")) {
+                LazySortedView view = new LazySortedView(collection, comparator);
+                printPages(view.size(), view::page);
+                continue;
+            }
+
             switch (choice) {
                 case "1":
-                    strategy = new TimSortStrategy(comparator); //выбираем стратегию сортировки
+                    strategy = new TimSortStrategy(comparator, true); //выбираем стратегию сортировки
                     break;
                 case "2":
                     strategy = new EvenTimSortStrategy(comparator);
                     break;
+                case "3":
+                    strategy = new ParallelTimSortStrategy(comparator, sortPool,
+                            ParallelTimSortStrategy.DEFAULT_SEQUENTIAL_CUTOFF);
+                    break;
                 case "4":
+                    strategy = new MileageRadixSortStrategy(comparator);
+                    break;
+                case "5":
+                    strategy = new StringRadixSortStrategy(comparator);
+                    break;
+                case "6":
+                    strategy = new NormalizedKeySortStrategy(comparator);
+                    break;
+                case "7":
+                    strategy = new InPlaceMergeSortStrategy(comparator);
+                    break;
+                case "8":
+                    strategy = new AdaptiveSortStrategy(comparator, sortPool);
+                    break;
+                case "11":
+                    strategy = new AbbreviatedKeySortStrategy(comparator);
+                    break;
+                case "12":
+                    strategy = new PartitionBucketSortStrategy(comparator, sortPool);
+                    break;
+                case "13":
                     System.out.println("Возвращаемся назад!!!");
                     break;
             }
             sortingService.setStrategy(strategy);//устанавливаем стратегию сортировки
 
-            collection.setBuses(sortingService.performSort(collection.toArray()));//сортируем массив из коллекции и сразу записываем его обратно
+            SortControl control = createSortControl();
+            if (control == null) {
+                continue;
+            }
+            // Сортировка только четных упорядочивает коллекцию не полностью - такой порядок не запоминаем
+            BusComparator sortedBy = strategy instanceof EvenTimSortStrategy ? null : comparator;
+            try {
+                sortCancellable(collection, sortedBy, control);//сортируем коллекцию и запоминаем, по какому порядку
+            } catch (SortCancelledException e) {
+                System.out.println(e.getMessage() + ". Коллекция оставлена без изменений");
+                continue;
+            }
             //такой подход позволяет добавлять новые стратегии сортировки с минимальным изменением кода
-            System.out.println("Отсортированный список");
-            for (Bus bus : collection) {
-                System.out.println(bus);
+            if (sortingService.isLastRefinement()) {
+                System.out.println("Коллекция уже была отсортирована по первым полям этого порядка: "
+                        + "досортированы только группы с равными значениями этих полей");
+            } else if (strategy instanceof AdaptiveSortStrategy) {
+                System.out.println("Выбран алгоритм: " + ((AdaptiveSortStrategy) strategy).getLastDecision());
             }
+            System.out.println("Отсортированный список");
+            printPages(collection.size(), (from, count) -> collectionPage(collection, from, count));
         }
     }
 
@@ -1,6 +1,7 @@
 package org.example.sortingApplication.domain;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.stream.Stream;
 
@@ -8,6 +9,8 @@ public class BusCollection implements Iterable<Bus> {
     private Bus[] buses;
     private int size;
     private static final int DEFAULT_CAPACITY = 10;
+    // Порядок, по которому коллекция сейчас отсортирована; null - неизвестен. Сбрасывается при любом изменении
+    private Comparator<Bus> sortedBy;
 
     public BusCollection() {
         buses = new Bus[DEFAULT_CAPACITY];
@@ -17,6 +20,7 @@ public class BusCollection implements Iterable<Bus> {
     public void addAll(BusCollection collection) {
         buses = collection.buses;
         size = collection.size;
+        sortedBy = collection.sortedBy;
     }
 
     public void add(Bus bus) {
@@ -24,6 +28,7 @@ public class BusCollection implements Iterable<Bus> {
             resize();
         }
         buses[size++] = bus;
+        sortedBy = null;
     }
 
     public Bus get(int index) {
@@ -69,6 +74,28 @@ public class BusCollection implements Iterable<Bus> {
 
     public void setBuses(Bus[] buses) {
         this.buses = buses;
+        sortedBy = null;
+    }
+
+    /**
+     * Заменяет содержимое коллекции массивом buses целиком, вместе с размером
+     * (в отличие от setBuses, который сохраняет прежний размер)
+     */
+    public void replaceContents(Bus[] buses) {
+        this.buses = buses.length == 0 ? new Bus[DEFAULT_CAPACITY] : buses;
+        size = buses.length;
+        sortedBy = null;
+    }
+
+    public Comparator<Bus> getSortedBy() {
+        return sortedBy;
+    }
+
+    /**
+     * Запоминает, что коллекция отсортирована по comparator (до следующего изменения)
+     */
+    public void setSortedBy(Comparator<Bus> comparator) {
+        this.sortedBy = comparator;
     }
 
     public boolean isEmpty(){
@@ -0,0 +1,266 @@
+package org.example.sortingApplication.service;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Внешняя сортировка файла, который не помещается в память.
+ * 1. Замещающий выбор (replacement selection): в куче держится столько автобусов, сколько
+ *    позволяет бюджет памяти; минимальный уходит в текущую серию на диске, на его место
+ *    читается следующий. Автобус меньше последнего записанного откладывается до следующей серии.
+ *    На случайных данных серии получаются в среднем вдвое длиннее кучи.
+ * 2. K-путевое слияние серий сразу в выходной файл в формате FileService.
+ *    Если серий больше MAX_FAN_IN, они сначала сливаются группами в промежуточные серии.
+ * Сортировка стабильна: равные автобусы выходят в порядке строк входного файла.
+ */
+public class ExternalSortService {
+    // Примерный размер автобуса в куче относительно строки файла: объект, две строки и их массивы
+    private static final int HEAP_BYTES_PER_FILE_BYTE = 6;
+    private static final int HEAP_BYTES_PER_BUS = 160;
+    private static final int MIN_HEAP_SIZE = 16;
+    private static final int MAX_FAN_IN = 64;       // столько серий сливается за один проход
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final long memoryBudget;  // байт кучи под сортируемые автобусы
+    private final boolean compressRuns;
+    private final InputService inputService = new InputService();
+    private final FileService fileService = new FileService();
+
+    private int lastRunCount;
+
+    /**
+     * Бюджет - четверть максимального размера кучи, серии сжимаются
+     */
+    public ExternalSortService() {
+        this(Runtime.getRuntime().maxMemory() / 4, true);
+    }
+
+    /**
+     * @param memoryBudget бюджет памяти под автобусы в байтах
+     * @param compressRuns сжимать ли временные файлы серий (GZIP): меньше диска, больше процессора
+     */
+    public ExternalSortService(long memoryBudget, boolean compressRuns) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Бюджет памяти должен быть положительным");
+        }
+        this.memoryBudget = memoryBudget;
+        this.compressRuns = compressRuns;
+    }
+
+    /**
+     * Примерный объём кучи, который займёт файл, если загрузить его в BusCollection
+     */
+    public static long estimateHeapSize(String filename) {
+        try {
+            return Files.size(Paths.get(filename)) * HEAP_BYTES_PER_FILE_BYTE;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Нужна ли внешняя сортировка: файл целиком не поместится в кучу
+     */
+    public static boolean isTooLargeForHeap(String filename) {
+        return estimateHeapSize(filename) > Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * Сортирует автобусы из inputFile в outputFile. Некорректные строки пропускаются,
+     * как при обычной загрузке из файла.
+     *
+     * @return число записанных автобусов
+     */
+    public long sort(String inputFile, String outputFile, Comparator<Bus> comparator) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<Path> merged = new ArrayList<>(); // серии следующего круга слияния, тоже удаляются в finally
+        try {
+            long count = createRuns(inputFile, comparator, runs);
+            lastRunCount = runs.size();
+
+            while (runs.size() > MAX_FAN_IN) {
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    List<Path> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                    Path run = createRunFile();
+                    merged.add(run);
+                    try (BufferedWriter writer = openRunWriter(run)) {
+                        mergeRuns(group, writer, comparator);
+                    }
+                    deleteAll(group);
+                }
+                // Файлы прошлого круга уже удалены, список переиспользуется для следующего
+                List<Path> done = runs;
+                runs = merged;
+                merged = done;
+                merged.clear();
+            }
+
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+                mergeRuns(runs, writer, comparator);
+            }
+            return count;
+        } finally {
+            runs.addAll(merged);
+            deleteAll(runs);
+        }
+    }
+
+    /**
+     * Число серий, построенных при последней сортировке
+     */
+    public int getLastRunCount() {
+        return lastRunCount;
+    }
+
+    private long createRuns(String inputFile, Comparator<Bus> comparator, List<Path> runs) throws IOException {
+        int heapSize = (int) Math.max(MIN_HEAP_SIZE, Math.min(Integer.MAX_VALUE - 8, memoryBudget / HEAP_BYTES_PER_BUS));
+
+        // Куча упорядочена по номеру серии, затем по компаратору, затем по номеру строки:
+        // последний ключ делает кучу стабильной
+        Comparator<HeapEntry> order = Comparator.<HeapEntry>comparingInt(e -> e.run)
+                .thenComparing(e -> e.bus, comparator)
+                .thenComparingLong(e -> e.sequence);
+        PriorityQueue<HeapEntry> heap = new PriorityQueue<>(order);
+
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(inputFile), StandardCharsets.UTF_8)) {
+            Bus next;
+            while (heap.size() < heapSize && (next = readBus(reader)) != null) {
+                heap.add(new HeapEntry(next, 0, count++));
+            }
+
+            int currentRun = -1;
+            BufferedWriter writer = null;
+            try {
+                while (!heap.isEmpty()) {
+                    HeapEntry entry = heap.poll();
+                    if (entry.run != currentRun) {
+                        if (writer != null) {
+                            writer.close();
+                        }
+                        Path run = createRunFile();
+                        runs.add(run);
+                        writer = openRunWriter(run);
+                        currentRun = entry.run;
+                    }
+                    writer.write(fileService.toLine(entry.bus));
+                    writer.newLine();
+
+                    next = readBus(reader);
+                    if (next != null) {
+                        // Меньше только что записанного - в эту серию уже не попадёт
+                        int run = comparator.compare(next, entry.bus) < 0 ? currentRun + 1 : currentRun;
+                        heap.add(new HeapEntry(next, run, count++));
+                    }
+                }
+            } finally {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Сливает серии в writer; при равных автобусах побеждает более ранняя серия,
+     * потому что в ней они стояли раньше во входном файле
+     */
+    private void mergeRuns(List<Path> runs, BufferedWriter writer, Comparator<Bus> comparator) throws IOException {
+        List<BufferedReader> readers = new ArrayList<>();
+        try {
+            PriorityQueue<HeapEntry> heap = new PriorityQueue<>(Math.max(1, runs.size()),
+                    Comparator.<HeapEntry, Bus>comparing(e -> e.bus, comparator).thenComparingInt(e -> e.run));
+            for (int i = 0; i < runs.size(); i++) {
+                BufferedReader reader = openRunReader(runs.get(i));
+                readers.add(reader);
+                Bus bus = readBus(reader);
+                if (bus != null) {
+                    heap.add(new HeapEntry(bus, i, 0));
+                }
+            }
+
+            while (!heap.isEmpty()) {
+                HeapEntry entry = heap.poll();
+                writer.write(fileService.toLine(entry.bus));
+                writer.newLine();
+                Bus bus = readBus(readers.get(entry.run));
+                if (bus != null) {
+                    heap.add(new HeapEntry(bus, entry.run, 0));
+                }
+            }
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Следующий корректный автобус или null в конце файла
+     */
+    private Bus readBus(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            Bus bus = inputService.parseBus(line);
+            if (bus != null) {
+                return bus;
+            }
+        }
+        return null;
+    }
+
+    private Path createRunFile() throws IOException {
+        Path run = Files.createTempFile("bus-run-", compressRuns ? ".csv.gz" : ".csv");
+        run.toFile().deleteOnExit();
+        return run;
+    }
+
+    private BufferedWriter openRunWriter(Path run) throws IOException {
+        OutputStream out = new FileOutputStream(run.toFile());
+        if (compressRuns) {
+            out = new GZIPOutputStream(out, IO_BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+    }
+
+    private BufferedReader openRunReader(Path run) throws IOException {
+        InputStream in = new FileInputStream(run.toFile());
+        if (compressRuns) {
+            in = new GZIPInputStream(in, IO_BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+    }
+
+    private static void deleteAll(List<Path> runs) throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+    }
+
+    private static final class HeapEntry {
+        final Bus bus;
+        final int run;
+        final long sequence;
+
+        HeapEntry(Bus bus, int run, long sequence) {
+            this.bus = bus;
+            this.run = run;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -12,7 +12,7 @@ public class FileService {
     public void writeToFile(String filename, BusCollection collection, boolean append) {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename, append))) {
             for (Bus bus : collection) {
-                writer.println(bus.getBusNumber() + "," + bus.getModel() + "," + bus.getMileage());
+                writer.println(toLine(bus));
             }
             System.out.println("Данные записаны в файл: " + filename);
         } catch (IOException e) {
@@ -20,6 +20,13 @@ public class FileService {
         }
     }
 
+    /**
+     * Строка файла для автобуса: "номер,модель,пробег"
+     */
+    public String toLine(Bus bus) {
+        return bus.getBusNumber() + "," + bus.getModel() + "," + bus.getMileage();
+    }
+
     public List<String> readFromFile(String filename) {
         List<String> lines = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
@@ -81,6 +81,13 @@ public class InputService {
         return collection;
     }
 
+    /**
+     * Разбирает строку файла "номер,модель,пробег"; null, если строка некорректна
+     */
+    public Bus parseBus(String data) {
+        return createBusFromString(data);
+    }
+
     private Bus createBusFromString(String data) {
         try {
             String[] parts = data.split(",");
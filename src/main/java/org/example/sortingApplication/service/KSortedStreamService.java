@@ -0,0 +1,205 @@
+package org.example.sortingApplication.service;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.strategy.TimSortStrategy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Потоковая сортировка почти упорядоченных данных: каждый автобус стоит не дальше K позиций
+ * от своего места в отсортированном порядке (например, телеметрия, пришедшая с небольшими задержками).
+ * В куче держится K + 1 автобус; её минимум уже не может оказаться меньше ни одного
+ * из ещё не прочитанных, поэтому он сразу выдаётся. Время O(n log K), память O(K),
+ * поток может быть бесконечным. Равные автобусы выходят в порядке поступления.
+ * Если пришёл автобус меньше уже выданного, граница K нарушена: потоковая сортировка
+ * бросает IllegalStateException, а sortAll для конечных данных досортирует их целиком.
+ */
+public class KSortedStreamService {
+    private final Comparator<Bus> comparator;
+    private final int k;
+    private final InputService inputService = new InputService();
+    private final FileService fileService = new FileService();
+
+    private boolean lastFallback;
+
+    /**
+     * @param k наибольшее расстояние автобуса от его места; 0 - данные уже отсортированы
+     */
+    public KSortedStreamService(Comparator<Bus> comparator, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("K не может быть отрицательным");
+        }
+        this.comparator = comparator;
+        this.k = k;
+    }
+
+    /**
+     * Ленивый отсортированный поток из input; null-элементы пропускаются.
+     *
+     * @throws IllegalStateException при чтении, если данные нарушают границу K
+     */
+    public Iterator<Bus> sort(Iterator<Bus> input) {
+        return new KSortedIterator(input);
+    }
+
+    /**
+     * То же для Stream; закрытие результата закрывает исходный поток
+     */
+    public Stream<Bus> sort(Stream<Bus> input) {
+        Iterator<Bus> sorted = sort(input.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(sorted, Spliterator.ORDERED), false)
+                .onClose(input::close);
+    }
+
+    /**
+     * Сортирует конечные данные целиком. Пока граница K соблюдается, работает как sort;
+     * при нарушении уже выданная часть, куча и остаток входа сортируются TimSort'ом.
+     * Результат в обоих случаях совпадает со стабильной сортировкой.
+     */
+    public List<Bus> sortAll(Iterator<Bus> input) {
+        KSortedIterator sorted = new KSortedIterator(input);
+        List<Bus> result = new ArrayList<>();
+        lastFallback = false;
+        try {
+            while (sorted.hasNext()) {
+                result.add(sorted.next());
+            }
+            return result;
+        } catch (IllegalStateException e) {
+            lastFallback = true;
+        }
+
+        // Выданное отсортировано и у равных идёт раньше оставшегося, остаток - в порядке поступления,
+        // поэтому стабильная сортировка всего списка даёт тот же результат, что и сортировка входа
+        List<Entry> pending = new ArrayList<>(sorted.heap);
+        pending.sort(Comparator.comparingLong(entry -> entry.sequence));
+        for (Entry entry : pending) {
+            result.add(entry.bus);
+        }
+        result.add(sorted.violating);
+        while (input.hasNext()) {
+            Bus bus = input.next();
+            if (bus != null) {
+                result.add(bus);
+            }
+        }
+        Bus[] all = new TimSortStrategy(comparator, true).sort(result.toArray(new Bus[0]));
+        return new ArrayList<>(Arrays.asList(all));
+    }
+
+    /**
+     * Сортирует файл в формате FileService построчно, не загружая его в память;
+     * некорректные строки пропускаются.
+     *
+     * @return число записанных автобусов
+     * @throws IllegalStateException если файл нарушает границу K (выходной файл тогда неполный)
+     */
+    public long sortFile(String inputFile, String outputFile) throws IOException {
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(inputFile), StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+            Iterator<Bus> buses = sort(reader.lines()
+                    .filter(line -> !line.trim().isEmpty())
+                    .map(inputService::parseBus)
+                    .iterator());
+            while (buses.hasNext()) {
+                writer.write(fileService.toLine(buses.next()));
+                writer.newLine();
+                count++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // ошибка чтения внутри reader.lines()
+        }
+        return count;
+    }
+
+    /**
+     * Пришлось ли при последнем sortAll досортировывать данные целиком
+     */
+    public boolean isLastFallback() {
+        return lastFallback;
+    }
+
+    private final class KSortedIterator implements Iterator<Bus> {
+        private final Iterator<Bus> input;
+        // Упорядочена по компаратору, затем по номеру поступления - так равные выходят по порядку
+        private final PriorityQueue<Entry> heap = new PriorityQueue<>((int) Math.min(k + 1L, 1024),
+                Comparator.<Entry, Bus>comparing(entry -> entry.bus, comparator)
+                        .thenComparingLong(entry -> entry.sequence));
+        private long sequence;
+        private Bus lastEmitted;
+        private Bus violating; // автобус, нарушивший границу K
+
+        KSortedIterator(Iterator<Bus> input) {
+            this.input = input;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public Bus next() {
+            fill();
+            if (heap.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            lastEmitted = heap.poll().bus;
+            return lastEmitted;
+        }
+
+        /**
+         * Дочитывает вход, пока в куче не станет K + 1 автобус
+         */
+        private void fill() {
+            if (violating != null) {
+                throw violation();
+            }
+            while (heap.size() <= k && input.hasNext()) {
+                Bus bus = input.next();
+                if (bus == null) {
+                    continue;
+                }
+                if (lastEmitted != null && comparator.compare(bus, lastEmitted) < 0) {
+                    violating = bus;
+                    throw violation();
+                }
+                heap.add(new Entry(bus, sequence++));
+            }
+        }
+
+        private IllegalStateException violation() {
+            return new IllegalStateException("Данные нарушают границу K = " + k + ": " + violating
+                    + " пришёл после уже выданного " + lastEmitted);
+        }
+    }
+
+    private static final class Entry {
+        final Bus bus;
+        final long sequence;
+
+        Entry(Bus bus, long sequence) {
+            this.bus = bus;
+            this.sequence = sequence;
+        }
+    }
+}
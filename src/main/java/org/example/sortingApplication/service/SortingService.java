@@ -1,10 +1,46 @@
 package org.example.sortingApplication.service;
 
 import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.domain.BusCollection;
+import org.example.sortingApplication.strategy.SortCancelledException;
+import org.example.sortingApplication.strategy.SortControl;
 import org.example.sortingApplication.strategy.SortStrategy;
+import org.example.sortingApplication.strategy.TimSortStrategy;
+import org.example.sortingApplication.util.BusComparator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SortingService {
+    private static final int PARALLEL_THRESHOLD = 1 << 16; // меньшие массивы досортировываются в одном потоке
+    private static final int SLICES_PER_THREAD = 4;        // кусков групп на поток пула - для выравнивания нагрузки
+    private static final long PROGRESS_MILLIS = 50;        // как часто ждущий поток сообщает ход досортировки
+
+    private final ForkJoinPool pool;
     private SortStrategy strategy;
+    private boolean lastRefinement;
+
+    public SortingService() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool пул для параллельной досортировки групп равных
+     */
+    public SortingService(ForkJoinPool pool) {
+        this.pool = pool;
+    }
 
     public void setStrategy(SortStrategy strategy) {
         this.strategy = strategy;
@@ -16,4 +52,233 @@ public class SortingService {
         }
         return strategy.sort(buses);
     }
+
+    /**
+     * Сортировка с отменой, лимитом времени и отчётом о ходе работы.
+     * При SortCancelledException массив buses остаётся перестановкой исходного.
+     */
+    public Bus[] performSort(Bus[] buses, SortControl control) {
+        if (strategy == null) {
+            throw new IllegalStateException("Стратегия не установлена");
+        }
+        control.start();
+        return strategy.sort(buses, control);
+    }
+
+    /**
+     * Сортирует коллекцию по comparator и запоминает в ней этот порядок.
+     * Если коллекция уже отсортирована по началу того же порядка (те же первые поля,
+     * тот же учёт регистра), стратегия не вызывается: досортировываются только группы
+     * автобусов, равных по старым полям, - по новым полям и параллельно. Так уточнение
+     * "модель" -> "модель, пробег" стоит почти O(n) вместо O(n log n).
+     * Результат совпадает с полной стабильной сортировкой.
+     *
+     * @param comparator порядок, который даёт установленная стратегия; null - стратегия
+     *                   упорядочивает коллекцию не полностью, порядок не запоминается
+     * @throws IllegalStateException если нужна полная сортировка, а стратегия не установлена
+     */
+    public void sortCollection(BusCollection collection, BusComparator comparator, SortControl control) {
+        List<String> fields = comparator == null ? null : comparator.getFieldOrder();
+        List<String> previous = sortedFields(collection, comparator);
+        lastRefinement = previous != null;
+
+        if (lastRefinement) {
+            control.start();
+            Bus[] buses = collection.toArray();
+            control.checkpoint(0, buses.length);
+            if (previous.size() < fields.size()) {
+                refineRuns(buses, (BusComparator) collection.getSortedBy(),
+                        restComparator(fields.subList(previous.size(), fields.size()), comparator.isCaseSensitive()),
+                        control);
+            }
+            control.finish(buses.length);
+            collection.setBuses(buses);
+        } else {
+            collection.setBuses(performSort(collection.toArray(), control));
+        }
+        collection.setSortedBy(comparator);
+    }
+
+    /**
+     * Вносит пакет изменений в отсортированную коллекцию без полной сортировки.
+     * Из коллекции за один линейный проход убираются автобусы с номерами из deletedNumbers
+     * и с номерами автобусов из upserts (их прежние версии). Пакет upserts сортируется отдельно
+     * по тому же порядку, дописывается за оставшимися и сливается с ними слиянием TimSort
+     * с галопом: длинные участки коллекции между вставками переносятся блоками.
+     * Стоимость - O(n) на проход и перенос плюс O(d log d) на пакет из d автобусов.
+     * Результат совпадает со стабильной сортировкой оставшихся автобусов, к которым дописан пакет.
+     *
+     * @return число удалённых из коллекции автобусов (включая заменённые)
+     * @throws IllegalStateException если неизвестно, по какому порядку отсортирована коллекция
+     */
+    public int applyDelta(BusCollection collection, Collection<Bus> upserts, Collection<String> deletedNumbers) {
+        Comparator<Bus> sortedBy = collection.getSortedBy();
+        if (sortedBy == null) {
+            throw new IllegalStateException("Коллекция не отсортирована: сначала выполните полную сортировку");
+        }
+        Set<String> removed = new HashSet<>(deletedNumbers);
+        for (Bus bus : upserts) {
+            removed.add(bus.getBusNumber());
+        }
+
+        // Оставшиеся автобусы по порядку, за ними - отсортированный пакет
+        Bus[] merged = new Bus[collection.size() + upserts.size()];
+        int kept = 0;
+        for (Bus bus : collection) {
+            if (!removed.contains(bus.getBusNumber())) {
+                merged[kept++] = bus;
+            }
+        }
+        Bus[] delta = upserts.toArray(new Bus[0]);
+        TimSortStrategy timSort = new TimSortStrategy(sortedBy, true);
+        timSort.sort(delta);
+        System.arraycopy(delta, 0, merged, kept, delta.length);
+        int total = kept + delta.length;
+        timSort.merge(merged, 0, kept - 1, total - 1);
+
+        int removedCount = collection.size() - kept;
+        collection.replaceContents(total == merged.length ? merged : Arrays.copyOf(merged, total));
+        collection.setSortedBy(sortedBy);
+        return removedCount;
+    }
+
+    /**
+     * Была ли последняя sortCollection только досортировкой групп равных
+     */
+    public boolean isLastRefinement() {
+        return lastRefinement;
+    }
+
+    /**
+     * Поля, по которым коллекция уже отсортирована, если они - начало порядка comparator; иначе null
+     */
+    private static List<String> sortedFields(BusCollection collection, BusComparator comparator) {
+        if (comparator == null || !(collection.getSortedBy() instanceof BusComparator)) {
+            return null;
+        }
+        BusComparator sortedBy = (BusComparator) collection.getSortedBy();
+        List<String> previous = sortedBy.getFieldOrder();
+        List<String> fields = comparator.getFieldOrder();
+        boolean prefix = sortedBy.isCaseSensitive() == comparator.isCaseSensitive()
+                && previous.size() <= fields.size()
+                && fields.subList(0, previous.size()).equals(previous);
+        return prefix ? previous : null;
+    }
+
+    /**
+     * Компаратор по оставшимся полям; повтор последнего поля ничего не меняет в порядке
+     */
+    private static BusComparator restComparator(List<String> rest, boolean caseSensitive) {
+        String last = rest.get(rest.size() - 1);
+        return new BusComparator(rest.get(0), last, last, caseSensitive);
+    }
+
+    /**
+     * Сортирует по rest каждую группу подряд идущих автобусов, равных по sortedBy.
+     * Между группами массив - целая перестановка исходного, там и проверяется control;
+     * ход работы - число автобусов на своих местах (вне групп и в досортированных группах).
+     * Большой массив делится на куски подряд идущих групп, куски сортируются в pool,
+     * у каждого куска один TimSortStrategy на все его группы. Задачи пула только смотрят
+     * isStopRequested между группами; ход работы сообщает и исключение бросает ждущий поток.
+     */
+    private void refineRuns(Bus[] buses, BusComparator sortedBy, BusComparator rest, SortControl control) {
+        List<int[]> runs = new ArrayList<>();
+        long total = buses.length;
+        long placed = total; // одиночные автобусы уже на своих местах
+        int start = 0;
+        for (int i = 1; i <= buses.length; i++) {
+            if (i == buses.length || sortedBy.compare(buses[start], buses[i]) != 0) {
+                if (i - start > 1) {
+                    runs.add(new int[]{start, i});
+                    placed -= i - start;
+                }
+                start = i;
+            }
+        }
+
+        if (buses.length < PARALLEL_THRESHOLD || pool.getParallelism() == 1 || runs.size() <= 1) {
+            TimSortStrategy timSort = new TimSortStrategy(rest, true);
+            long done = placed;
+            for (int[] run : runs) {
+                timSort.sortRange(buses, run[0], run[1]);
+                done += run[1] - run[0];
+                control.checkpoint(done, total);
+            }
+            return;
+        }
+
+        // Куски примерно поровну по числу автобусов: одна большая группа не тормозит остальные
+        int slices = Math.min(runs.size(), pool.getParallelism() * SLICES_PER_THREAD);
+        long perSlice = (total - placed + slices - 1) / slices;
+        AtomicLong done = new AtomicLong(placed);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        long size = 0;
+        for (int from = 0, r = 0; r < runs.size(); r++) {
+            int[] run = runs.get(r);
+            size += run[1] - run[0];
+            if (size >= perSlice || r == runs.size() - 1) {
+                int lo = from;
+                int hi = r + 1;
+                tasks.add(pool.submit(() -> sortRuns(buses, runs.subList(lo, hi), rest, control, done)));
+                from = r + 1;
+                size = 0;
+            }
+        }
+
+        SortCancelledException stopped = null;
+        for (ForkJoinTask<?> task : tasks) {
+            while (!awaitSlice(task)) {
+                if (stopped == null) {
+                    try {
+                        control.checkpoint(done.get(), total);
+                    } catch (SortCancelledException e) {
+                        stopped = e; // задачи сами остановятся между группами - дожидаемся их
+                    }
+                }
+            }
+        }
+        if (stopped != null) {
+            throw stopped;
+        }
+        if (done.get() < total) {
+            control.throwIfStopped(); // остановку заметили только задачи
+        }
+    }
+
+    private static void sortRuns(Bus[] buses, List<int[]> runs, BusComparator rest, SortControl control,
+                                 AtomicLong done) {
+        TimSortStrategy timSort = new TimSortStrategy(rest, true);
+        for (int[] run : runs) {
+            if (control.isStopRequested()) {
+                return;
+            }
+            timSort.sortRange(buses, run[0], run[1]);
+            done.addAndGet(run[1] - run[0]);
+        }
+    }
+
+    /**
+     * Ждёт кусок не дольше PROGRESS_MILLIS
+     *
+     * @return true, если кусок завершён
+     */
+    private static boolean awaitSlice(ForkJoinTask<?> task) {
+        try {
+            task.get(PROGRESS_MILLIS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SortCancelledException("Досортировка прервана", false);
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package org.example.sortingApplication.service;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Первые K автобусов в порядке компаратора без сортировки всех данных.
+ * Автобусы проходят по одному через кучу из K элементов, в корне которой худший из отобранных:
+ * новый автобус либо вытесняет его, либо сразу отбрасывается. Память - O(K)
+ * независимо от размера входа, время - O(n log K).
+ * Результат совпадает с первыми K элементами стабильной сортировки: при равенстве
+ * побеждает автобус, пришедший раньше.
+ */
+public class TopKService {
+    private final Comparator<Bus> comparator;
+    private final int k;
+    private final boolean includeTies;
+    private final InputService inputService = new InputService();
+
+    public TopKService(Comparator<Bus> comparator, int k) {
+        this(comparator, k, false);
+    }
+
+    /**
+     * @param includeTies true - вернуть также все автобусы, равные K-му (результат может быть длиннее K);
+     *                    память тогда O(K + число равных K-му)
+     */
+    public TopKService(Comparator<Bus> comparator, int k, boolean includeTies) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K должно быть положительным");
+        }
+        this.comparator = comparator;
+        this.k = k;
+        this.includeTies = includeTies;
+    }
+
+    /**
+     * Первые K автобусов из потока, по возрастанию; null-элементы пропускаются
+     */
+    public List<Bus> select(Iterator<Bus> buses) {
+        Comparator<Entry> order = Comparator.<Entry, Bus>comparing(e -> e.bus, comparator)
+                .thenComparingLong(e -> e.sequence);
+        PriorityQueue<Entry> heap = new PriorityQueue<>(k, order.reversed()); // в корне - худший
+        List<Entry> ties = new ArrayList<>(); // равные худшему из кучи, но не поместившиеся в неё
+
+        long sequence = 0;
+        while (buses.hasNext()) {
+            Bus bus = buses.next();
+            if (bus == null) {
+                continue;
+            }
+            Entry entry = new Entry(bus, sequence++);
+            if (heap.size() < k) {
+                heap.add(entry);
+                continue;
+            }
+
+            Entry worst = heap.peek();
+            int cmp = comparator.compare(bus, worst.bus);
+            if (cmp < 0) {
+                heap.poll();
+                heap.add(entry);
+                if (includeTies) {
+                    // Вытесненный остаётся в результате, только если равен новому худшему
+                    if (comparator.compare(worst.bus, heap.peek().bus) == 0) {
+                        ties.add(worst);
+                    } else {
+                        ties.clear();
+                    }
+                }
+            } else if (cmp == 0 && includeTies) {
+                ties.add(entry);
+            }
+        }
+
+        List<Entry> selected = new ArrayList<>(heap.size() + ties.size());
+        selected.addAll(heap);
+        selected.addAll(ties);
+        selected.sort(order);
+
+        List<Bus> result = new ArrayList<>(selected.size());
+        for (Entry entry : selected) {
+            result.add(entry.bus);
+        }
+        return result;
+    }
+
+    /**
+     * Первые K автобусов из файла в формате FileService. Файл читается построчно,
+     * поэтому может быть намного больше памяти; некорректные строки пропускаются.
+     */
+    public List<Bus> selectFromFile(String filename) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            Iterator<Bus> buses = reader.lines()
+                    .filter(line -> !line.trim().isEmpty())
+                    .map(inputService::parseBus)
+                    .iterator();
+            return select(buses);
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // ошибка чтения внутри reader.lines()
+        }
+    }
+
+    private static final class Entry {
+        final Bus bus;
+        final long sequence;
+
+        Entry(Bus bus, long sequence) {
+            this.bus = bus;
+            this.sequence = sequence;
+        }
+    }
+}
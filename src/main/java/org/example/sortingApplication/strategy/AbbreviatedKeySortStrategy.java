@@ -0,0 +1,187 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.example.sortingApplication.util.SortKeyEncoder;
+
+import java.util.stream.IntStream;
+
+/**
+ * Сортировка с сокращёнными ключами: для каждого автобуса один раз вычисляется
+ * 8-байтный префикс ключа SortKeyEncoder, и префиксы лежат в long[] рядом с массивом индексов.
+ * Стабильная сортировка слиянием переставляет оба массива вместе и сравнивает сначала
+ * префиксы - числа в соседних ячейках памяти, без переходов по ссылкам к строкам.
+ * Полный BusComparator вызывается только при равных префиксах.
+ * Выигрыш тем больше, чем лучше префикс различает автобусы: номера и модели обычно
+ * различаются в первых символах. Счётчик сравнений общий для всех вызовов,
+ * поэтому экземпляр не потокобезопасен.
+ * Массив автобусов переставляется только в самом конце, поэтому отмена (SortControl),
+ * проверяемая после каждого блока и слияния, оставляет его нетронутым.
+ */
+public class AbbreviatedKeySortStrategy implements SortStrategy {
+    private static final int INSERTION_THRESHOLD = 32; // блоки такой длины сортируются вставками
+    private static final int PARALLEL_THRESHOLD = 1 << 16; // с этого размера префиксы считаются параллельно
+
+    private final BusComparator comparator;
+    private final SortKeyEncoder encoder;
+    private long tieComparisons;
+
+    // Отмена и ход работы: задаются только на время sort(buses, control)
+    private SortControl control;
+    private long workDone;   // элементов в отсортированных блоках и слияниях
+    private long workTotal;
+
+    public AbbreviatedKeySortStrategy(BusComparator comparator) {
+        this.comparator = comparator;
+        this.encoder = new SortKeyEncoder(comparator);
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        if (buses == null || buses.length <= 1) {
+            return buses;
+        }
+        Bus[] sorted = SortStrategy.applyPermutation(buses, sortPermutation(buses));
+        System.arraycopy(sorted, 0, buses, 0, buses.length);
+        return buses;
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        int n = buses == null ? 0 : buses.length;
+        control.checkpoint(0, n);
+        if (n <= 1) {
+            control.finish(n);
+            return buses;
+        }
+        this.control = control;
+        try {
+            sort(buses);
+        } finally {
+            this.control = null;
+        }
+        control.finish(workTotal);
+        return buses;
+    }
+
+    @Override
+    public int[] sortPermutation(Bus[] buses) {
+        int n = buses.length;
+        long[] keys = new long[n];
+        int[] order = new int[n];
+        // Знаковый бит инвертирован: беззнаковый порядок префиксов становится обычным порядком long
+        IntStream range = IntStream.range(0, n);
+        (n >= PARALLEL_THRESHOLD ? range.parallel() : range).forEach(i -> {
+            keys[i] = encoder.prefix(buses[i]) ^ Long.MIN_VALUE;
+            order[i] = i;
+        });
+
+        long blocks = (n + INSERTION_THRESHOLD - 1) / INSERTION_THRESHOLD;
+        workDone = 0;
+        workTotal = n * (1L + (64 - Long.numberOfLeadingZeros(blocks - 1)));
+        for (int lo = 0; lo < n; lo += INSERTION_THRESHOLD) {
+            int hi = Math.min(lo + INSERTION_THRESHOLD, n);
+            insertionSort(buses, keys, order, lo, hi);
+            reportProgress(hi - lo);
+        }
+        if (n <= INSERTION_THRESHOLD) {
+            return order;
+        }
+
+        // Слияния снизу вверх, попеременно из одной пары массивов в другую
+        long[] srcKeys = keys;
+        int[] srcOrder = order;
+        long[] dstKeys = new long[n];
+        int[] dstOrder = new int[n];
+        for (int width = INSERTION_THRESHOLD; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                merge(buses, srcKeys, srcOrder, dstKeys, dstOrder, lo, mid, hi);
+                reportProgress(hi - lo);
+            }
+            long[] keysSwap = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = keysSwap;
+            int[] orderSwap = srcOrder;
+            srcOrder = dstOrder;
+            dstOrder = orderSwap;
+        }
+        return srcOrder;
+    }
+
+    /**
+     * Сливает отсортированные [lo, mid) и [mid, hi) из src в dst; при равенстве первым идёт левый
+     */
+    private void merge(Bus[] buses, long[] srcKeys, int[] srcOrder, long[] dstKeys, int[] dstOrder,
+                       int lo, int mid, int hi) {
+        // Серии уже стоят по порядку - просто копируем
+        if (mid == hi || compare(buses, srcKeys[mid - 1], srcOrder[mid - 1], srcKeys[mid], srcOrder[mid]) <= 0) {
+            System.arraycopy(srcKeys, lo, dstKeys, lo, hi - lo);
+            System.arraycopy(srcOrder, lo, dstOrder, lo, hi - lo);
+            return;
+        }
+        int i = lo;
+        int j = mid;
+        int dest = lo;
+        while (i < mid && j < hi) {
+            if (compare(buses, srcKeys[j], srcOrder[j], srcKeys[i], srcOrder[i]) < 0) {
+                dstKeys[dest] = srcKeys[j];
+                dstOrder[dest++] = srcOrder[j++];
+            } else {
+                dstKeys[dest] = srcKeys[i];
+                dstOrder[dest++] = srcOrder[i++];
+            }
+        }
+        System.arraycopy(srcKeys, i, dstKeys, dest, mid - i);
+        System.arraycopy(srcOrder, i, dstOrder, dest, mid - i);
+        dest += mid - i;
+        System.arraycopy(srcKeys, j, dstKeys, dest, hi - j);
+        System.arraycopy(srcOrder, j, dstOrder, dest, hi - j);
+    }
+
+    private void reportProgress(long work) {
+        workDone += work;
+        if (control != null) {
+            control.checkpoint(workDone, workTotal);
+        }
+    }
+
+    private void insertionSort(Bus[] buses, long[] keys, int[] order, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            long key = keys[i];
+            int index = order[i];
+            int j = i - 1;
+            while (j >= lo && compare(buses, key, index, keys[j], order[j]) < 0) {
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            order[j + 1] = index;
+        }
+    }
+
+    /**
+     * Сравнение по префиксам, а при равных префиксах - полным компаратором
+     */
+    private int compare(Bus[] buses, long key1, int index1, long key2, int index2) {
+        if (key1 != key2) {
+            return key1 < key2 ? -1 : 1;
+        }
+        tieComparisons++;
+        return comparator.compare(buses[index1], buses[index2]);
+    }
+
+    /**
+     * Число вызовов полного компаратора (при равных префиксах) с момента создания
+     */
+    public long getTieComparisonCount() {
+        return tieComparisons;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Сортировка с 8-байтными префиксами ключей (компаратор только при равных префиксах)";
+    }
+}
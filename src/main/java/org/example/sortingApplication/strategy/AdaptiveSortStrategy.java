@@ -0,0 +1,218 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Сама выбирает алгоритм по выборке из входного массива: размер, доля уже упорядоченных
+ * соседних пар (признак длинных серий), доля повторов первого ключа и его тип.
+ * Выборка - не больше SAMPLE_SIZE элементов, поэтому её цена не зависит от n.
+ * Все варианты стабильны, так что результат не зависит от выбора - меняется только время.
+ * Выбор и его причина доступны через getLastChoice() и getLastDecision().
+ * SortControl передаётся выбранной стратегии, поэтому отмена и лимит времени работают внутри неё.
+ */
+public class AdaptiveSortStrategy implements SortStrategy {
+    private static final int INSERTION_MAX = 32;        // как MIN_MERGE в TimSort
+    private static final int SAMPLE_SIZE = 512;
+    private static final int PRESORTED_DIVISOR = 32;    // меньше 1/32 "неправильных" пар - длинные серии
+    private static final int LOW_CARDINALITY = 16;      // столько разных строк - поразрядная не окупается
+    private static final int PARALLEL_MIN_SIZE = 1 << 16;
+
+    public enum Choice {
+        INSERTION("сортировка вставками"),
+        NATURAL_MERGE("TimSort (естественные серии)"),
+        MILEAGE_RADIX("поразрядная по пробегу"),
+        STRING_RADIX("поразрядная по строке"),
+        PARALLEL("параллельный TimSort");
+
+        private final String title;
+
+        Choice(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    private final BusComparator comparator;
+    private final ForkJoinPool pool;
+    private final String primaryField;
+
+    // Стратегии создаются один раз и переиспользуют свои буферы между сортировками
+    private final TimSortStrategy timSort;
+    private final MileageRadixSortStrategy mileageRadix;
+    private final StringRadixSortStrategy stringRadix;
+    private ParallelTimSortStrategy parallel;
+
+    private Choice lastChoice;
+    private String lastDecision = "сортировка ещё не выполнялась";
+
+    /**
+     * @param pool пул для параллельной сортировки; при одном потоке она не выбирается
+     */
+    public AdaptiveSortStrategy(BusComparator comparator, ForkJoinPool pool) {
+        this.comparator = comparator;
+        this.pool = pool;
+        List<String> fields = comparator.getFieldOrder();
+        this.primaryField = fields.isEmpty() ? "" : fields.get(0);
+        this.timSort = new TimSortStrategy(comparator, true);
+        this.mileageRadix = new MileageRadixSortStrategy(comparator);
+        this.stringRadix = new StringRadixSortStrategy(comparator);
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        SortStrategy delegate = choose(buses);
+        return delegate == null ? buses : delegate.sort(buses);
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        int n = buses == null ? 0 : buses.length;
+        control.checkpoint(0, n);
+        SortStrategy delegate = choose(buses);
+        if (delegate == null) {
+            control.finish(n);
+            return buses;
+        }
+        return delegate.sort(buses, control);
+    }
+
+    /**
+     * Выбирает стратегию по выборке и запоминает причину выбора.
+     * Маленький массив сразу сортируется вставками - тогда возвращается null.
+     */
+    private SortStrategy choose(Bus[] buses) {
+        if (buses == null || buses.length <= 1) {
+            decide(Choice.INSERTION, "сортировать нечего");
+            return null;
+        }
+
+        int n = buses.length;
+        if (n <= INSERTION_MAX) {
+            decide(Choice.INSERTION, "всего " + n + " элементов");
+            timSort.insertionSort(buses, 0, n - 1);
+            return null;
+        }
+
+        int pairs = Math.min(SAMPLE_SIZE, n - 1);
+        int descents = countSampledDescents(buses, pairs);
+        int ascents = pairs - descents;
+        if (Math.min(descents, ascents) * PRESORTED_DIVISOR < pairs) {
+            decide(Choice.NATURAL_MERGE, String.format("данные почти упорядочены: убывающих пар %d из %d",
+                    descents, pairs));
+            return timSort;
+        }
+
+        if (primaryField.isEmpty()) {
+            decide(Choice.NATURAL_MERGE, "поля сравнения не заданы");
+            return timSort;
+        }
+
+        int sample = Math.min(SAMPLE_SIZE, n);
+        int distinct = countSampledDistinct(buses, sample);
+        String stats = String.format("%d элементов, повторов первого поля в выборке %d%%",
+                n, 100 * (sample - distinct) / sample);
+
+        if (primaryField.equals("пробег")) {
+            decide(Choice.MILEAGE_RADIX, "первое поле - пробег (целое число), " + stats);
+            return mileageRadix;
+        }
+
+        if (n >= PARALLEL_MIN_SIZE && pool.getParallelism() > 1) {
+            decide(Choice.PARALLEL, stats + ", потоков: " + pool.getParallelism());
+            if (parallel == null) {
+                parallel = new ParallelTimSortStrategy(comparator, pool,
+                        ParallelTimSortStrategy.DEFAULT_SEQUENTIAL_CUTOFF);
+            }
+            return parallel;
+        }
+
+        if (distinct <= LOW_CARDINALITY) {
+            decide(Choice.NATURAL_MERGE, "у первого поля мало разных значений (" + distinct + "), " + stats);
+            return timSort;
+        }
+        decide(Choice.STRING_RADIX, "первое поле - строка (" + primaryField + "), " + stats);
+        return stringRadix;
+    }
+
+    /**
+     * Число убывающих соседних пар среди pairs пар, взятых равномерно по массиву
+     */
+    private int countSampledDescents(Bus[] buses, int pairs) {
+        long step = (buses.length - 1L) / pairs;
+        int descents = 0;
+        for (int s = 0; s < pairs; s++) {
+            int i = (int) (s * step);
+            if (comparator.compare(buses[i], buses[i + 1]) > 0) {
+                descents++;
+            }
+        }
+        return descents;
+    }
+
+    /**
+     * Число разных значений первого поля в равномерной выборке из sample элементов
+     */
+    private int countSampledDistinct(Bus[] buses, int sample) {
+        long step = (long) buses.length / sample;
+        Set<Object> keys = new HashSet<>();
+        for (int s = 0; s < sample; s++) {
+            keys.add(primaryKey(buses[(int) (s * step)]));
+        }
+        return keys.size();
+    }
+
+    private Object primaryKey(Bus bus) {
+        switch (primaryField) {
+            case "пробег":
+                return bus.getMileage();
+            case "номер":
+                return fold(bus.getBusNumber());
+            default:
+                return fold(bus.getModel());
+        }
+    }
+
+    private String fold(String value) {
+        if (comparator.isCaseSensitive()) {
+            return value;
+        }
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = BusComparator.foldCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private void decide(Choice choice, String reason) {
+        lastChoice = choice;
+        lastDecision = choice.getTitle() + ": " + reason;
+    }
+
+    /**
+     * Алгоритм, выбранный при последней сортировке (null, если сортировок не было)
+     */
+    public Choice getLastChoice() {
+        return lastChoice;
+    }
+
+    /**
+     * Выбранный алгоритм и причина выбора для последней сортировки
+     */
+    public String getLastDecision() {
+        return lastDecision;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Автоматический выбор алгоритма по выборке из данных";
+    }
+}
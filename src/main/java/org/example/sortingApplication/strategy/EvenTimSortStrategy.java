@@ -1,46 +1,42 @@
 package org.example.sortingApplication.strategy;
 
 import org.example.sortingApplication.domain.Bus;
-import org.example.sortingApplication.domain.BusCollection;
+import org.example.sortingApplication.util.MileageKernels;
 
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
 
+/**
+ * Сортирует только автобусы с четным пробегом, остальные (и null) остаются на своих местах.
+ * Это частичная сортировка по маске "пробег четный" с TimSort внутри; сбор, возврат на места
+ * и переиспользуемые буферы - в MaskedSortStrategy, поэтому sort не потокобезопасен;
+ * sortPermutation можно вызывать для общего массива из нескольких потоков.
+ */
 public class EvenTimSortStrategy implements SortStrategy {
-    private final Comparator<Bus> comparator;
+    private final MaskedSortStrategy maskedSort;
 
     public EvenTimSortStrategy(Comparator<Bus> comparator) {
-        this.comparator = comparator;
+        // Маска четности строится по столбцу пробегов (в профиле vector - SIMD); null - нечетный
+        this.maskedSort = new MaskedSortStrategy(bus -> bus == null ? 1 : bus.getMileage(),
+                MileageKernels.get()::evenMask, new TimSortStrategy(comparator));
     }
 //я решил отделить четные элементы, отсортировать их, а потом вернуть на свои места
     @Override
     public Bus[] sort(Bus[] buses) {
-        if (buses == null || buses.length <= 1) {
-            return buses;
-        }
-        TimSortStrategy timSortStrategy = new TimSortStrategy(comparator);
-
-        // 1. Собираем четные автобусы и их позиции
-        BusCollection evens = new BusCollection();
-        List<Integer> positions = new ArrayList<>();
-        for(int i = 0; i < buses.length; i++) {
-            if(buses[i] != null && buses[i].getMileage() % 2 == 0) {
-                evens.add(buses[i]);
-                positions.add(i);
-            }
-        }
-
-        // 2. Получаем массив из коллекции и сортируем его
-        Bus[] evenArray = evens.toArray();
-        timSortStrategy.sort(evenArray);
+        return maskedSort.sort(buses);
+    }
 
-        // 3. Заменяем четные элементы в исходном массиве
-        for(int i = 0; i < evenArray.length; i++) {
-            buses[positions.get(i)] = evenArray[i];
-        }
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        return maskedSort.sort(buses, control);
+    }
 
-        return buses;
+    /**
+     * Перестановка: автобусы с нечетным пробегом (и null) остаются на своих позициях,
+     * позиции четных получают индексы четных в отсортированном порядке
+     */
+    @Override
+    public int[] sortPermutation(Bus[] buses) {
+        return maskedSort.sortPermutation(buses);
     }
 
     @Override
@@ -0,0 +1,215 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.util.Comparator;
+
+/**
+ * Стабильная сортировка слиянием почти без дополнительной памяти.
+ * Обычному слиянию нужен буфер на n/2 ссылок; здесь буфер всего ~sqrt(n) ссылок.
+ * Если меньшая из сливаемых частей помещается в буфер, слияние обычное.
+ * Иначе используется SymMerge (Kim, Kutzner): части делятся бинарным поиском,
+ * средние куски меняются местами поворотом на месте, и задача распадается
+ * на два меньших слияния - пока меньшая часть не поместится в буфер.
+ * Число сравнений остаётся O(n log n), как у TimSort; перемещений больше - O(n log^2 n).
+ * Отмена и лимит времени проверяются после каждого блока и каждого слияния.
+ */
+public class InPlaceMergeSortStrategy implements SortStrategy {
+    private static final int BLOCK_SIZE = 16; // блоки, сортируемые вставками перед слияниями
+
+    private final Comparator<Bus> comparator;
+    private Bus[] buffer;
+    private long comparisons;
+
+    // Отмена и ход работы: задаются только на время sort(buses, control)
+    private SortControl control;
+    private long workDone;   // элементов в отсортированных блоках и слияниях
+    private long workTotal;
+
+    public InPlaceMergeSortStrategy(Comparator<Bus> comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        comparisons = 0;
+        if (buses == null || buses.length <= 1) {
+            return buses;
+        }
+        int n = buses.length;
+        long blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        workDone = 0;
+        workTotal = n * (1L + (64 - Long.numberOfLeadingZeros(blocks - 1)));
+        buffer = new Bus[(int) Math.ceil(Math.sqrt(n))];
+        try {
+            for (int lo = 0; lo < n; lo += BLOCK_SIZE) {
+                insertionSort(buses, lo, Math.min(lo + BLOCK_SIZE, n));
+                reportProgress(Math.min(BLOCK_SIZE, n - lo));
+            }
+            for (int width = BLOCK_SIZE; width < n; width *= 2) {
+                for (int lo = 0; lo < n; lo += 2 * width) {
+                    int hi = Math.min(lo + 2 * width, n);
+                    if (lo + width < n) {
+                        merge(buses, lo, lo + width, hi);
+                    }
+                    reportProgress(hi - lo);
+                }
+            }
+        } finally {
+            buffer = null;
+        }
+        return buses;
+    }
+
+    /**
+     * Проверяет отмену и лимит времени после каждого блока и слияния; слияние идёт на месте,
+     * поэтому в этих точках массив - целая перестановка исходного
+     */
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        int n = buses == null ? 0 : buses.length;
+        control.checkpoint(0, n);
+        if (n <= 1) {
+            control.finish(n);
+            return buses;
+        }
+        this.control = control;
+        try {
+            sort(buses);
+        } finally {
+            this.control = null;
+        }
+        control.finish(workTotal);
+        return buses;
+    }
+
+    private void reportProgress(long work) {
+        workDone += work;
+        if (control != null) {
+            control.checkpoint(workDone, workTotal);
+        }
+    }
+
+    private void insertionSort(Bus[] a, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            Bus current = a[i];
+            int j = i - 1;
+            while (j >= lo && compare(a[j], current) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    /**
+     * Слияние a[lo...mid) и a[mid...hi)
+     */
+    private void merge(Bus[] a, int lo, int mid, int hi) {
+        if (compare(a[mid - 1], a[mid]) <= 0) {
+            return; // части уже идут по порядку
+        }
+        symMerge(a, lo, mid, hi);
+    }
+
+    private void symMerge(Bus[] a, int lo, int mid, int hi) {
+        if (Math.min(mid - lo, hi - mid) <= buffer.length) {
+            bufferedMerge(a, lo, mid, hi);
+            return;
+        }
+
+        // Ищем такие start и end, что a[start...mid) и a[mid...end) нужно поменять местами
+        int half = (lo + hi) >>> 1;
+        int n = half + mid;
+        int start;
+        int r;
+        if (mid > half) {
+            start = n - hi;
+            r = half;
+        } else {
+            start = lo;
+            r = mid;
+        }
+        int p = n - 1;
+        while (start < r) {
+            int c = (start + r) >>> 1;
+            if (compare(a[p - c], a[c]) >= 0) {
+                start = c + 1;
+            } else {
+                r = c;
+            }
+        }
+        int end = n - start;
+
+        if (start < mid && mid < end) {
+            rotate(a, start, mid, end);
+        }
+        if (lo < start && start < half) {
+            symMerge(a, lo, start, half);
+        }
+        if (half < end && end < hi) {
+            symMerge(a, half, end, hi);
+        }
+    }
+
+    /**
+     * Обычное стабильное слияние: меньшая часть копируется в буфер
+     */
+    private void bufferedMerge(Bus[] a, int lo, int mid, int hi) {
+        int len1 = mid - lo;
+        int len2 = hi - mid;
+        if (len1 <= len2) {
+            System.arraycopy(a, lo, buffer, 0, len1);
+            int i = 0;
+            int j = mid;
+            int k = lo;
+            while (i < len1 && j < hi) {
+                a[k++] = compare(a[j], buffer[i]) < 0 ? a[j++] : buffer[i++];
+            }
+            System.arraycopy(buffer, i, a, k, len1 - i);
+        } else {
+            System.arraycopy(a, mid, buffer, 0, len2);
+            int i = mid - 1;
+            int j = len2 - 1;
+            int k = hi - 1;
+            while (i >= lo && j >= 0) {
+                a[k--] = compare(buffer[j], a[i]) < 0 ? a[i--] : buffer[j--];
+            }
+            System.arraycopy(buffer, 0, a, lo, j + 1);
+        }
+    }
+
+    /**
+     * Меняет местами соседние блоки a[lo...mid) и a[mid...hi) тремя разворотами
+     */
+    private static void rotate(Bus[] a, int lo, int mid, int hi) {
+        reverse(a, lo, mid);
+        reverse(a, mid, hi);
+        reverse(a, lo, hi);
+    }
+
+    private static void reverse(Bus[] a, int lo, int hi) {
+        for (hi--; lo < hi; lo++, hi--) {
+            Bus t = a[lo];
+            a[lo] = a[hi];
+            a[hi] = t;
+        }
+    }
+
+    private int compare(Bus bus1, Bus bus2) {
+        comparisons++;
+        return comparator.compare(bus1, bus2);
+    }
+
+    /**
+     * Число вызовов компаратора за последнюю сортировку
+     */
+    public long getComparisonCount() {
+        return comparisons;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Слияние на месте (стабильная, доп. память ~sqrt(n) ссылок)";
+    }
+}
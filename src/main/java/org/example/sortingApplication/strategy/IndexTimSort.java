@@ -0,0 +1,248 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.util.Comparator;
+
+/**
+ * TimSort по массиву индексов: сортируются int-индексы, а сравниваются автобусы,
+ * на которые они указывают. Массив автобусов только читается, поэтому один и тот же
+ * массив можно сортировать из нескольких потоков и хранить несколько порядков сразу.
+ * Как и TimSortStrategy: естественные серии, добивание до minRun бинарными вставками,
+ * стек серий, перед слиянием отбрасываются уже стоящие на месте края серий.
+ * Каждый вызов sort создаёт своё состояние.
+ */
+final class IndexTimSort {
+    private static final int MIN_MERGE = 32;
+
+    private final Bus[] buses;
+    private final Comparator<Bus> comparator;
+    private final int[] a;
+
+    private final int[] runBase = new int[49];
+    private final int[] runLen = new int[49];
+    private int stackSize;
+    private int[] tmp = new int[0];
+
+    private IndexTimSort(Bus[] buses, Comparator<Bus> comparator, int[] a) {
+        this.buses = buses;
+        this.comparator = comparator;
+        this.a = a;
+    }
+
+    /**
+     * Стабильно сортирует индексы a[lo...hi) по автобусам buses[a[i]]
+     */
+    static void sort(Bus[] buses, int[] a, int lo, int hi, Comparator<Bus> comparator) {
+        if (hi - lo < 2) {
+            return;
+        }
+        new IndexTimSort(buses, comparator, a).sortRange(lo, hi);
+    }
+
+    private void sortRange(int lo, int hi) {
+        int remaining = hi - lo;
+        if (remaining < MIN_MERGE) {
+            int initRunLen = countRunAndMakeAscending(lo, hi);
+            binarySort(lo, hi, lo + initRunLen);
+            return;
+        }
+
+        int minRun = minRunLength(remaining);
+        do {
+            int runLength = countRunAndMakeAscending(lo, hi);
+            if (runLength < minRun) {
+                int force = Math.min(remaining, minRun);
+                binarySort(lo, lo + force, lo + runLength);
+                runLength = force;
+            }
+
+            runBase[stackSize] = lo;
+            runLen[stackSize] = runLength;
+            stackSize++;
+            mergeCollapse();
+
+            lo += runLength;
+            remaining -= runLength;
+        } while (remaining != 0);
+
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                n--;
+            }
+            mergeAt(n);
+        }
+    }
+
+    private int compare(int i, int j) {
+        return comparator.compare(buses[i], buses[j]);
+    }
+
+    private int countRunAndMakeAscending(int lo, int hi) {
+        int runHi = lo + 1;
+        if (runHi == hi) {
+            return 1;
+        }
+
+        if (compare(a[runHi++], a[lo]) < 0) {
+            while (runHi < hi && compare(a[runHi], a[runHi - 1]) < 0) {
+                runHi++;
+            }
+            for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                int t = a[i];
+                a[i] = a[j];
+                a[j] = t;
+            }
+        } else {
+            while (runHi < hi && compare(a[runHi], a[runHi - 1]) >= 0) {
+                runHi++;
+            }
+        }
+        return runHi - lo;
+    }
+
+    private void binarySort(int lo, int hi, int start) {
+        if (start == lo) {
+            start++;
+        }
+        for (; start < hi; start++) {
+            int pivot = a[start];
+            int left = lo;
+            int right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (compare(pivot, a[mid]) < 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            System.arraycopy(a, left, a, left + 1, start - left);
+            a[left] = pivot;
+        }
+    }
+
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= (n & 1);
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                    || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                if (runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+            } else if (runLen[n] > runLen[n + 1]) {
+                break;
+            }
+            mergeAt(n);
+        }
+    }
+
+    private void mergeAt(int i) {
+        int base1 = runBase[i];
+        int len1 = runLen[i];
+        int base2 = runBase[i + 1];
+        int len2 = runLen[i + 1];
+
+        runLen[i] = len1 + len2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLen[i + 1] = runLen[i + 2];
+        }
+        stackSize--;
+
+        // Начало первой серии, не превосходящее первый элемент второй, уже на месте
+        int k = upperBound(a[base2], base1, len1);
+        base1 += k;
+        len1 -= k;
+        if (len1 == 0) {
+            return;
+        }
+        // Как и конец второй серии, не меньший последнего элемента первой
+        len2 = lowerBound(a[base1 + len1 - 1], base2, len2);
+        if (len2 == 0) {
+            return;
+        }
+
+        if (len1 <= len2) {
+            mergeLo(base1, len1, base2, len2);
+        } else {
+            mergeHi(base1, len1, base2, len2);
+        }
+    }
+
+    /**
+     * Число элементов a[base...base+len), не больших key
+     */
+    private int upperBound(int key, int base, int len) {
+        int left = 0;
+        int right = len;
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (compare(key, a[base + mid]) < 0) {
+                right = mid;
+            } else {
+                left = mid + 1;
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Число элементов a[base...base+len), меньших key
+     */
+    private int lowerBound(int key, int base, int len) {
+        int left = 0;
+        int right = len;
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (compare(a[base + mid], key) < 0) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+
+    private int[] ensureCapacity(int minCapacity) {
+        if (tmp.length < minCapacity) {
+            tmp = new int[Math.max(minCapacity, Math.min(a.length >>> 1, 2 * minCapacity))];
+        }
+        return tmp;
+    }
+
+    private void mergeLo(int base1, int len1, int base2, int len2) {
+        int[] t = ensureCapacity(len1);
+        System.arraycopy(a, base1, t, 0, len1);
+        int i = 0;
+        int j = base2;
+        int end2 = base2 + len2;
+        int dest = base1;
+        while (i < len1 && j < end2) {
+            a[dest++] = compare(a[j], t[i]) < 0 ? a[j++] : t[i++];
+        }
+        System.arraycopy(t, i, a, dest, len1 - i);
+    }
+
+    private void mergeHi(int base1, int len1, int base2, int len2) {
+        int[] t = ensureCapacity(len2);
+        System.arraycopy(a, base2, t, 0, len2);
+        int i = base1 + len1 - 1;
+        int j = len2 - 1;
+        int dest = base2 + len2 - 1;
+        while (i >= base1 && j >= 0) {
+            a[dest--] = compare(t[j], a[i]) < 0 ? a[i--] : t[j--];
+        }
+        System.arraycopy(t, 0, a, base1, j + 1);
+    }
+}
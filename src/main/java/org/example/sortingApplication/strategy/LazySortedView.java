@@ -0,0 +1,240 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.domain.BusCollection;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Отсортированное представление коллекции, которое сортирует только запрошенные страницы
+ * (инкрементальная быстрая сортировка). Разбиение кладёт опорный элемент на его окончательное
+ * место; дальше делятся только те части, которые пересекают запрошенную страницу.
+ * Опорные элементы отмечаются в BitSet, поэтому следующие страницы продолжают уже сделанную
+ * работу. Первая страница стоит O(n), все страницы вместе - O(n log n), как полная сортировка.
+ * Коллекция не меняется: переставляются индексы её копии. При равенстве по компаратору
+ * порядок решает исходный индекс, так что результат совпадает со стабильной сортировкой.
+ */
+public class LazySortedView {
+    private static final int INSERTION_THRESHOLD = 16; // такие части сразу сортируются вставками
+    private static final int NINTHER_THRESHOLD = 128;  // с этого размера опорный - медиана из девяти
+
+    private final Bus[] buses;
+    private final int[] order;   // order[i] - индекс в buses автобуса на позиции i
+    private final BitSet fixed;  // позиции, на которых уже стоит окончательный элемент
+    private final Comparator<Bus> comparator;
+    private final int depthLimit; // глубже - часть досортировывается пирамидальной сортировкой
+    private long comparisons;
+
+    public LazySortedView(BusCollection collection, Comparator<Bus> comparator) {
+        this.buses = collection.toArray();
+        this.comparator = comparator;
+        int n = buses.length;
+        this.order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        this.fixed = new BitSet(n);
+        this.depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(n)) + 4;
+    }
+
+    public int size() {
+        return buses.length;
+    }
+
+    /**
+     * Автобусы на позициях [from, from + count) отсортированного порядка
+     * (меньше, если коллекция кончается раньше)
+     */
+    public List<Bus> page(int from, int count) {
+        if (from < 0 || count < 0) {
+            throw new IllegalArgumentException("Начало и размер страницы не могут быть отрицательными");
+        }
+        int to = (int) Math.min((long) from + count, buses.length);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        ensureSorted(from, to);
+
+        List<Bus> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(buses[order[i]]);
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+    /**
+     * Автобус на позиции position отсортированного порядка
+     */
+    public Bus get(int position) {
+        if (position < 0 || position >= buses.length) {
+            throw new IndexOutOfBoundsException("Позиция " + position + " вне коллекции размера " + buses.length);
+        }
+        ensureSorted(position, position + 1);
+        return buses[order[position]];
+    }
+
+    /**
+     * Сколько позиций уже заняты окончательными элементами
+     */
+    public int getSortedCount() {
+        return fixed.cardinality();
+    }
+
+    /**
+     * Число вызовов компаратора с момента создания представления
+     */
+    public long getComparisonCount() {
+        return comparisons;
+    }
+
+    private void ensureSorted(int from, int to) {
+        int n = buses.length;
+        int i = fixed.nextClearBit(from);
+        while (i < to) {
+            // Неотсортированная часть между двумя окончательными позициями
+            int lo = fixed.previousSetBit(i) + 1;
+            int hi = fixed.nextSetBit(i);
+            if (hi < 0 || hi > n) {
+                hi = n;
+            }
+            refine(lo, hi, from, to, depthLimit);
+            i = fixed.nextClearBit(Math.min(hi, to));
+        }
+    }
+
+    /**
+     * Делит order[lo...hi), пока все позиции, пересекающиеся с [from, to), не станут окончательными
+     */
+    private void refine(int lo, int hi, int from, int to, int depth) {
+        while (true) {
+            if (hi - lo <= INSERTION_THRESHOLD) {
+                insertionSort(lo, hi);
+                fixed.set(lo, hi);
+                return;
+            }
+            if (depth-- == 0) {
+                heapSort(lo, hi);
+                fixed.set(lo, hi);
+                return;
+            }
+
+            int p = partition(lo, hi);
+            fixed.set(p);
+            boolean left = from < p && to > lo;
+            boolean right = to > p + 1 && from < hi;
+            if (left && right) {
+                refine(lo, p, from, to, depth);
+                lo = p + 1;
+            } else if (left) {
+                hi = p;
+            } else if (right) {
+                lo = p + 1;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Разбиение Хоара: опорный элемент встаёт на своё окончательное место, возвращается его позиция
+     */
+    private int partition(int lo, int hi) {
+        int mid = (lo + hi) >>> 1;
+        int m;
+        if (hi - lo >= NINTHER_THRESHOLD) {
+            int step = (hi - lo) / 8;
+            m = median(median(lo, lo + step, lo + 2 * step),
+                    median(mid - step, mid, mid + step),
+                    median(hi - 1 - 2 * step, hi - 1 - step, hi - 1));
+        } else {
+            m = median(lo, mid, hi - 1);
+        }
+        swap(lo, m);
+
+        int pivot = order[lo];
+        int i = lo;
+        int j = hi;
+        while (true) {
+            do {
+                i++;
+            } while (i < hi && less(order[i], pivot));
+            do {
+                j--;
+            } while (less(pivot, order[j]));
+            if (i >= j) {
+                break;
+            }
+            swap(i, j);
+        }
+        swap(lo, j);
+        return j;
+    }
+
+    /**
+     * Позиция среднего из трёх элементов
+     */
+    private int median(int a, int b, int c) {
+        if (less(order[a], order[b])) {
+            return less(order[b], order[c]) ? b : (less(order[a], order[c]) ? c : a);
+        }
+        return less(order[a], order[c]) ? a : (less(order[b], order[c]) ? c : b);
+    }
+
+    private void insertionSort(int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int current = order[i];
+            int j = i - 1;
+            while (j >= lo && less(current, order[j])) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+
+    private void heapSort(int lo, int hi) {
+        int n = hi - lo;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(lo, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(lo, lo + end);
+            siftDown(lo, 0, end);
+        }
+    }
+
+    private void siftDown(int lo, int i, int n) {
+        int value = order[lo + i];
+        while (2 * i + 1 < n) {
+            int child = 2 * i + 1;
+            if (child + 1 < n && less(order[lo + child], order[lo + child + 1])) {
+                child++;
+            }
+            if (!less(value, order[lo + child])) {
+                break;
+            }
+            order[lo + i] = order[lo + child];
+            i = child;
+        }
+        order[lo + i] = value;
+    }
+
+    /**
+     * Сравнение по компаратору, при равенстве - по исходному индексу (все ключи различны)
+     */
+    private boolean less(int a, int b) {
+        comparisons++;
+        int cmp = comparator.compare(buses[a], buses[b]);
+        return cmp < 0 || (cmp == 0 && a < b);
+    }
+
+    private void swap(int i, int j) {
+        int t = order[i];
+        order[i] = order[j];
+        order[j] = t;
+    }
+}
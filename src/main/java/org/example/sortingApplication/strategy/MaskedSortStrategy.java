@@ -0,0 +1,276 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Сортирует только элементы, отмеченные маской; остальные остаются на своих позициях.
+ * Маска задаётся условием (вычисляется один раз на элемент, сохраняется битами в long[]),
+ * столбцом int-значений с функцией маски над ним (например, векторной из MileageKernels)
+ * или готовым BitSet. Отмеченные элементы собираются в буфер, сортируются вложенной
+ * стратегией и возвращаются на отмеченные позиции в отсортированном порядке.
+ * Буферы sort переиспользуются между сортировками, поэтому sort не потокобезопасен;
+ * sortPermutation выделяет свои буферы на каждый вызов и безопасна при одновременных вызовах,
+ * если такова sortPermutation вложенной стратегии.
+ * На больших массивах вычисление маски, сбор и возврат идут параллельно по кускам массива.
+ */
+public class MaskedSortStrategy implements SortStrategy {
+    private static final int PARALLEL_THRESHOLD = 1 << 16; // меньшие массивы обрабатываются в одном потоке
+    private static final int CHUNK_SIZE = 1 << 14;         // кратно 64: куски не делят слова маски
+
+    /**
+     * Маска по столбцу: для values[from...to) записывает слова words[from / 64]...,
+     * бит i установлен - элемент i сортируется. from кратно 64, биты за to нулевые.
+     */
+    @FunctionalInterface
+    public interface ColumnMask {
+        void fill(int[] values, int from, int to, long[] words);
+    }
+
+    private final Predicate<Bus> predicate; // null, если маска задана столбцом или готовым BitSet
+    private final ToIntFunction<Bus> column;
+    private final ColumnMask columnMask;
+    private final BitSet fixedMask;
+    private final SortStrategy inner;
+
+    private Buffers sortBuffers = new Buffers(0, 0, false); // только для sort, переиспользуются
+
+    /**
+     * @param predicate условие; получает каждый элемент, в том числе null
+     */
+    public MaskedSortStrategy(Predicate<Bus> predicate, SortStrategy inner) {
+        this.predicate = predicate;
+        this.column = null;
+        this.columnMask = null;
+        this.fixedMask = null;
+        this.inner = inner;
+    }
+
+    /**
+     * @param column     значение столбца для элемента; получает каждый элемент, в том числе null
+     * @param columnMask маска по столбцу
+     */
+    public MaskedSortStrategy(ToIntFunction<Bus> column, ColumnMask columnMask, SortStrategy inner) {
+        this.predicate = null;
+        this.column = column;
+        this.columnMask = columnMask;
+        this.fixedMask = null;
+        this.inner = inner;
+    }
+
+    /**
+     * @param mask бит i установлен - элемент i сортируется; биты за концом массива не учитываются
+     */
+    public MaskedSortStrategy(BitSet mask, SortStrategy inner) {
+        this.predicate = null;
+        this.column = null;
+        this.columnMask = null;
+        this.fixedMask = mask;
+        this.inner = inner;
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        return sortMasked(buses, null);
+    }
+
+    /**
+     * Отмеченные сортируются вложенной стратегией с тем же control и возвращаются
+     * на места только после неё, поэтому после отмены массив не меняется
+     */
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        if (buses == null || buses.length <= 1) {
+            return SortStrategy.super.sort(buses, control);
+        }
+        return sortMasked(buses, control);
+    }
+
+    private Bus[] sortMasked(Bus[] buses, SortControl control) {
+        if (buses == null || buses.length <= 1) {
+            return buses;
+        }
+        int n = buses.length;
+        int chunks = n >= PARALLEL_THRESHOLD ? (n + CHUNK_SIZE - 1) / CHUNK_SIZE : 1;
+        if (!sortBuffers.fits(n, chunks + 1)) {
+            sortBuffers = new Buffers(n, chunks + 1, column != null);
+        }
+        Buffers buffers = sortBuffers;
+        int count = gather(buses, chunks, buffers);
+
+        if (control == null) {
+            inner.sortRange(buffers.selected, 0, count);
+        } else {
+            try {
+                Bus[] sorted = inner.sort(Arrays.copyOf(buffers.selected, count), control);
+                System.arraycopy(sorted, 0, buffers.selected, 0, count);
+            } catch (SortCancelledException e) {
+                Arrays.fill(buffers.selected, 0, count, null);
+                throw e;
+            }
+        }
+
+        // Возвращаем отсортированные на отмеченные позиции; ссылки в буфере не держим
+        int chunkSize = chunks == 1 ? n : CHUNK_SIZE;
+        int[] positions = buffers.positions;
+        Bus[] selected = buffers.selected;
+        int[] offsets = buffers.chunkOffsets;
+        forEachChunk(chunks, c -> {
+            for (int j = offsets[c]; j < offsets[c + 1]; j++) {
+                buses[positions[j]] = selected[j];
+                selected[j] = null;
+            }
+        });
+        return buses;
+    }
+
+    /**
+     * Перестановка: неотмеченные позиции указывают сами на себя, отмеченные получают
+     * индексы отмеченных элементов в порядке sortPermutation вложенной стратегии
+     */
+    @Override
+    public int[] sortPermutation(Bus[] buses) {
+        int n = buses.length;
+        int chunks = n >= PARALLEL_THRESHOLD ? (n + CHUNK_SIZE - 1) / CHUNK_SIZE : 1;
+        // Свои буферы на вызов: общие буферы sort испортили бы одновременные вызовы
+        Buffers buffers = new Buffers(n, chunks + 1, column != null);
+        int count = gather(buses, chunks, buffers);
+        int[] positions = buffers.positions;
+
+        int[] localOrder = inner.sortPermutation(Arrays.copyOf(buffers.selected, count));
+
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        for (int j = 0; j < count; j++) {
+            permutation[positions[j]] = positions[localOrder[j]];
+        }
+        return permutation;
+    }
+
+    /**
+     * Вычисляет маску и собирает отмеченные элементы с их позициями в buffers
+     * в исходном порядке (поэтому стабильность вложенной стратегии сохраняется)
+     *
+     * @return число отмеченных элементов
+     */
+    private int gather(Bus[] buses, int chunks, Buffers buffers) {
+        int n = buses.length;
+        int chunkSize = chunks == 1 ? n : CHUNK_SIZE;
+        long[] words = buffers.maskWords;
+        int[] positions = buffers.positions;
+        Bus[] selected = buffers.selected;
+        int[] offsets = buffers.chunkOffsets;
+
+        // 1. Маска: условие вычисляется ровно один раз для каждого элемента
+        if (predicate != null) {
+            forEachChunk(chunks, c -> {
+                int from = c * chunkSize;
+                int to = Math.min(from + chunkSize, n);
+                for (int w = from >>> 6; w << 6 < to; w++) {
+                    long word = 0;
+                    for (int i = w << 6, end = Math.min(i + 64, to); i < end; i++) {
+                        if (predicate.test(buses[i])) {
+                            word |= 1L << i;
+                        }
+                    }
+                    words[w] = word;
+                }
+            });
+        } else if (column != null) {
+            int[] values = buffers.columnValues;
+            forEachChunk(chunks, c -> {
+                int from = c * chunkSize;
+                int to = Math.min(from + chunkSize, n);
+                for (int i = from; i < to; i++) {
+                    values[i] = column.applyAsInt(buses[i]);
+                }
+                columnMask.fill(values, from, to, words);
+            });
+        } else {
+            long[] fixed = fixedMask.toLongArray();
+            int wordCount = (n + 63) >>> 6;
+            Arrays.fill(words, 0, wordCount, 0L);
+            System.arraycopy(fixed, 0, words, 0, Math.min(fixed.length, wordCount));
+            if ((n & 63) != 0) {
+                words[wordCount - 1] &= (1L << n) - 1; // биты за концом массива
+            }
+        }
+
+        // 2. Число отмеченных в каждом куске и начало куска в буферах
+        forEachChunk(chunks, c -> {
+            int from = c * chunkSize;
+            int to = Math.min(from + chunkSize, n);
+            int count = 0;
+            for (int w = from >>> 6; w << 6 < to; w++) {
+                count += Long.bitCount(words[w]);
+            }
+            offsets[c + 1] = count;
+        });
+        offsets[0] = 0;
+        for (int c = 0; c < chunks; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+
+        // 3. Сбор отмеченных: идём только по установленным битам
+        forEachChunk(chunks, c -> {
+            int from = c * chunkSize;
+            int to = Math.min(from + chunkSize, n);
+            int j = offsets[c];
+            for (int w = from >>> 6; w << 6 < to; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                    positions[j] = i;
+                    selected[j++] = buses[i];
+                    word &= word - 1;
+                }
+            }
+        });
+        return offsets[chunks];
+    }
+
+    private static void forEachChunk(int chunks, IntConsumer task) {
+        if (chunks == 1) {
+            task.accept(0);
+        } else {
+            IntStream.range(0, chunks).parallel().forEach(task);
+        }
+    }
+
+    /**
+     * Слова маски, позиции отмеченных, сами отмеченные, начало каждого куска в буферах
+     * и значения столбца (только для маски по столбцу)
+     */
+    private static final class Buffers {
+        final long[] maskWords;
+        final int[] positions;
+        final Bus[] selected;
+        final int[] chunkOffsets;
+        final int[] columnValues;
+
+        Buffers(int n, int offsetCount, boolean withColumn) {
+            maskWords = new long[(n + 63) >>> 6];
+            positions = new int[n];
+            selected = new Bus[n];
+            chunkOffsets = new int[offsetCount];
+            columnValues = withColumn ? new int[n] : null;
+        }
+
+        boolean fits(int n, int offsetCount) {
+            return positions.length >= n && chunkOffsets.length >= offsetCount;
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Сортировка только отмеченных элементов (" + inner.getDescription() + ")";
+    }
+}
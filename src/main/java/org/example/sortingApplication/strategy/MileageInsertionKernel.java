@@ -0,0 +1,87 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Сортировка маленьких блоков (базовый случай TimSort), когда первое поле компаратора - пробег.
+ * Пробеги блока копируются в int[], и место вставки ищется бинарным поиском по ним
+ * без ветвлений: шаг поиска - условное присваивание, которое JIT превращает в cmov,
+ * поэтому на случайных пробегах нет промахов предсказателя переходов.
+ * Компаратор вызывается только для элементов с равным пробегом.
+ */
+final class MileageInsertionKernel {
+    static final int MAX_LENGTH = 64;
+
+    private final Comparator<Bus> comparator;
+    private final int[] keys = new int[MAX_LENGTH];
+
+    private MileageInsertionKernel(Comparator<Bus> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Ядро для компаратора или null, если первое поле сравнения не пробег
+     */
+    static MileageInsertionKernel forComparator(Comparator<Bus> comparator) {
+        if (comparator instanceof BusComparator) {
+            List<String> fields = ((BusComparator) comparator).getFieldOrder();
+            if (!fields.isEmpty() && fields.get(0).equals("пробег")) {
+                return new MileageInsertionKernel(comparator);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Стабильно сортирует a[lo...hi), где a[lo...start) уже отсортирован; hi - lo <= MAX_LENGTH
+     *
+     * @return число вызовов компаратора
+     */
+    int sort(Bus[] a, int lo, int hi, int start) {
+        int n = hi - lo;
+        int[] k = keys;
+        for (int i = 0; i < n; i++) {
+            k[i] = a[lo + i].getMileage();
+        }
+
+        int calls = 0;
+        for (int i = Math.max(start - lo, 1); i < n; i++) {
+            int key = k[i];
+            Bus pivot = a[lo + i];
+            int pos = upperBound(k, i, key);
+
+            // Равные пробеги: порядок внутри группы решает полный компаратор
+            while (pos > 0 && k[pos - 1] == key) {
+                calls++;
+                if (comparator.compare(a[lo + pos - 1], pivot) <= 0) {
+                    break;
+                }
+                pos--;
+            }
+
+            System.arraycopy(k, pos, k, pos + 1, i - pos);
+            k[pos] = key;
+            System.arraycopy(a, lo + pos, a, lo + pos + 1, i - pos);
+            a[lo + pos] = pivot;
+        }
+        return calls;
+    }
+
+    /**
+     * Индекс первого ключа больше key в k[0...len), len >= 1
+     */
+    private static int upperBound(int[] k, int len, int key) {
+        int base = 0;
+        int n = len;
+        while (n > 1) {
+            int half = n >>> 1;
+            base += k[base + half] <= key ? half : 0;
+            n -= half;
+        }
+        return base + (k[base] <= key ? 1 : 0);
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.example.sortingApplication.util.MileageKernels;
+
+import java.util.Arrays;
+
+/**
+ * Поразрядная (LSD radix) сортировка по пробегу. Пробег - целое число в небольшом
+ * диапазоне (ValidationService ограничивает его 0...1 000 000), поэтому вместо
+ * сравнений автобусы раскладываются по корзинам за несколько линейных проходов.
+ * Каждый проход стабилен, так что автобусы с равным пробегом сохраняют исходный порядок;
+ * затем только внутри таких групп порядок уточняется остальными полями BusComparator.
+ * Если первое поле компаратора не пробег, сортировка делегируется TimSort.
+ * Отмена и лимит времени проверяются после каждого прохода и каждой группы равных пробегов.
+ */
+public class MileageRadixSortStrategy implements SortStrategy {
+    private static final String MILEAGE = "пробег";
+    private static final int MAX_RADIX_BITS = 11;  // до 2048 корзин на проход - счётчики помещаются в L1
+    private static final int MIN_RADIX_SIZE = 64;  // на маленьких массивах сравнения дешевле
+
+    private final BusComparator comparator;
+    private final TimSortStrategy timSort;
+    private final MileageKernels kernels = MileageKernels.get(); // min/max и гистограммы по столбцу пробегов
+
+    // Буферы переиспользуются между сортировками
+    private Bus[] busBuffer;
+    private int[] keys;
+    private int[] keyBuffer;
+
+    // Отмена и ход работы: задаются только на время sort(buses, control)
+    private SortControl control;
+    private long workDone;   // разложенных за проходы и досортированных в группах автобусов
+    private long workTotal;
+
+    public MileageRadixSortStrategy(BusComparator comparator) {
+        this.comparator = comparator;
+        this.timSort = new TimSortStrategy(comparator, true);
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        if (buses == null || buses.length <= 1) {
+            return buses;
+        }
+        if (!usesRadix(buses)) {
+            return timSort.sort(buses);
+        }
+
+        int n = buses.length;
+        ensureCapacity(n);
+        workDone = 0;
+        workTotal = n;
+        reportProgress(0);
+
+        for (int i = 0; i < n; i++) {
+            keys[i] = buses[i].getMileage();
+        }
+        int[] minMax = kernels.minMax(keys, n);
+        int min = minMax[0];
+        int max = minMax[1];
+
+        // Сортируем по смещению от минимума: для пробега 0...1 000 000 это 20 бит, два прохода
+        long range = (long) max - min;
+        int bits = 64 - Long.numberOfLeadingZeros(range);
+        int passes = (bits + MAX_RADIX_BITS - 1) / MAX_RADIX_BITS;
+        workTotal = (long) n * (passes + 1);
+        if (passes > 0) {
+            try {
+                radixSort(buses, n, min, bits, passes);
+            } finally {
+                // Буфер переживает сортировку - копию массива в нём не держим
+                Arrays.fill(busBuffer, 0, n, null);
+            }
+        }
+
+        sortEqualMileageGroups(buses, n);
+        return buses;
+    }
+
+    /**
+     * Проверяет отмену и лимит времени после каждого прохода и каждой группы равных пробегов;
+     * в этих точках массив - целая перестановка исходного
+     */
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        if (!usesRadix(buses)) {
+            return timSort.sort(buses, control);
+        }
+        this.control = control;
+        try {
+            sort(buses);
+        } finally {
+            this.control = null;
+        }
+        control.finish(workTotal);
+        return buses;
+    }
+
+    private boolean usesRadix(Bus[] buses) {
+        return buses != null && buses.length >= MIN_RADIX_SIZE
+                && MILEAGE.equalsIgnoreCase(comparator.getPrimaryField());
+    }
+
+    private void radixSort(Bus[] buses, int n, int min, int bits, int passes) {
+        int radixBits = (bits + passes - 1) / passes;
+        int mask = (1 << radixBits) - 1;
+        int[] count = new int[1 << radixBits];
+
+        Bus[] src = buses;
+        Bus[] dst = busBuffer;
+        int[] srcKeys = keys;
+        int[] dstKeys = keyBuffer;
+
+        for (int pass = 0, shift = 0; pass < passes; pass++, shift += radixBits) {
+            Arrays.fill(count, 0);
+            kernels.digitHistogram(srcKeys, n, min, shift, mask, count);
+
+            // Счётчики -> начальные позиции корзин
+            int position = 0;
+            for (int b = 0; b < count.length; b++) {
+                int c = count[b];
+                count[b] = position;
+                position += c;
+            }
+
+            // Раскладываем по корзинам в порядке обхода - это и даёт стабильность
+            for (int i = 0; i < n; i++) {
+                int key = srcKeys[i];
+                int target = count[((key - min) >>> shift) & mask]++;
+                dst[target] = src[i];
+                dstKeys[target] = key;
+            }
+
+            Bus[] swap = src;
+            src = dst;
+            dst = swap;
+            int[] swapKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = swapKeys;
+
+            try {
+                reportProgress(n);
+            } catch (SortCancelledException e) {
+                // Проход завершён, но результат может быть в буфере - возвращаем его в массив
+                if (src != buses) {
+                    System.arraycopy(src, 0, buses, 0, n);
+                }
+                throw e;
+            }
+        }
+
+        // Нечётное число проходов - результат в буфере
+        if (src != buses) {
+            System.arraycopy(src, 0, buses, 0, n);
+            System.arraycopy(srcKeys, 0, keys, 0, n);
+        }
+    }
+
+    /**
+     * Досортировывает по второму и третьему полю только группы с одинаковым пробегом
+     */
+    private void sortEqualMileageGroups(Bus[] buses, int n) {
+        if (!hasTieBreakFields()) {
+            reportProgress(n);
+            return;
+        }
+        int start = 0;
+        for (int i = 1; i <= n; i++) {
+            if (i == n || keys[i] != keys[start]) {
+                if (i - start > 1) {
+                    timSort.sortRange(buses, start, i);
+                }
+                reportProgress(i - start);
+                start = i;
+            }
+        }
+    }
+
+    private void reportProgress(long work) {
+        workDone += work;
+        if (control != null) {
+            control.checkpoint(workDone, workTotal);
+        }
+    }
+
+    private boolean hasTieBreakFields() {
+        return isTieBreakField(comparator.getSecondaryField()) || isTieBreakField(comparator.getTertiaryField());
+    }
+
+    private static boolean isTieBreakField(String field) {
+        return field != null && !MILEAGE.equalsIgnoreCase(field);
+    }
+
+    private void ensureCapacity(int n) {
+        if (keys == null || keys.length < n) {
+            busBuffer = new Bus[n];
+            keys = new int[n];
+            keyBuffer = new int[n];
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Поразрядная сортировка по пробегу (LSD radix, стабильная)";
+    }
+}
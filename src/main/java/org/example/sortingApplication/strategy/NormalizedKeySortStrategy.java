@@ -0,0 +1,185 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.example.sortingApplication.util.SortKeyEncoder;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Сортировка по нормализованным ключам: для каждого автобуса один раз (параллельно)
+ * строится байтовый ключ SortKeyEncoder, после чего массив сортируется MSD radix
+ * по байтам ключа - без вызовов компаратора вообще. Ключи кодируют все поля
+ * BusComparator по порядку, поэтому равные ключи означают равные автобусы,
+ * а стабильное раскладывание сохраняет их исходный порядок.
+ * Отмена и лимит времени проверяются каждый раз, когда группа автобусов встаёт на своё место.
+ */
+public class NormalizedKeySortStrategy implements SortStrategy {
+    private static final int RADIX = 256;
+    private static final int INSERTION_THRESHOLD = 16;
+
+    private final SortKeyEncoder encoder;
+
+    private byte[][] keys;
+    private byte[][] keyBuffer;
+    private Bus[] busBuffer;
+
+    // Отмена и ход работы: задаются только на время sort(buses, control)
+    private SortControl control;
+    private long placed; // автобусов, уже стоящих на своих местах
+    private int total;
+
+    public NormalizedKeySortStrategy(BusComparator comparator) {
+        this.encoder = new SortKeyEncoder(comparator);
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        if (buses == null || buses.length <= 1) {
+            return buses;
+        }
+        int n = buses.length;
+        ensureCapacity(n);
+
+        // Ключ строится один раз на элемент, а не на каждое сравнение
+        byte[][] keys = this.keys;
+        try {
+            IntStream.range(0, n).parallel().forEach(i -> keys[i] = encoder.encode(buses[i]));
+            placed = 0;
+            total = n;
+            reportPlaced(0);
+            msdSort(buses, 0, n, 0);
+        } finally {
+            // Ключи и автобусы больше не нужны - не держим их в памяти до следующей сортировки
+            Arrays.fill(keys, 0, n, null);
+            Arrays.fill(keyBuffer, 0, n, null);
+            Arrays.fill(busBuffer, 0, n, null);
+        }
+        return buses;
+    }
+
+    /**
+     * Ход работы - число автобусов, уже стоящих на своих местах; проверки идут между
+     * раскладываниями, когда массив - целая перестановка исходного
+     */
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        int n = buses == null ? 0 : buses.length;
+        control.checkpoint(0, n);
+        if (n <= 1) {
+            control.finish(n);
+            return buses;
+        }
+        this.control = control;
+        try {
+            sort(buses);
+        } finally {
+            this.control = null;
+        }
+        control.finish(n);
+        return buses;
+    }
+
+    /**
+     * Сортирует buses[lo...hi), у ключей которых совпадают первые d байтов
+     */
+    private void msdSort(Bus[] buses, int lo, int hi, int d) {
+        int[] count = new int[RADIX + 2];
+        while (true) {
+            int n = hi - lo;
+            if (n <= INSERTION_THRESHOLD) {
+                insertionSort(buses, lo, hi, d);
+                reportPlaced(n);
+                return;
+            }
+
+            Arrays.fill(count, 0);
+            for (int i = lo; i < hi; i++) {
+                count[byteAt(keys[i], d) + 2]++;
+            }
+
+            // Все ключи в одной корзине - сразу переходим к следующему байту
+            int single = -1;
+            for (int r = 1; r < count.length; r++) {
+                if (count[r] == n) {
+                    single = r;
+                    break;
+                }
+            }
+            if (single == 1) {
+                reportPlaced(n); // ключи закончились: все равны, исходный порядок уже сохранён
+                return;
+            }
+            if (single > 1) {
+                d++;
+                continue;
+            }
+
+            for (int r = 0; r < RADIX + 1; r++) {
+                count[r + 1] += count[r];
+            }
+            for (int i = lo; i < hi; i++) {
+                int target = count[byteAt(keys[i], d) + 1]++;
+                busBuffer[target] = buses[i];
+                keyBuffer[target] = keys[i];
+            }
+            System.arraycopy(busBuffer, 0, buses, lo, n);
+            System.arraycopy(keyBuffer, 0, keys, lo, n);
+
+            reportPlaced(count[0]);
+            for (int r = 0; r < RADIX; r++) {
+                int size = count[r + 1] - count[r];
+                if (size > 1) {
+                    msdSort(buses, lo + count[r], lo + count[r + 1], d + 1);
+                } else {
+                    reportPlaced(size);
+                }
+            }
+            return;
+        }
+    }
+
+    private void reportPlaced(int count) {
+        placed += count;
+        if (control != null) {
+            control.checkpoint(placed, total);
+        }
+    }
+
+    private static int byteAt(byte[] key, int d) {
+        return d < key.length ? key[d] & 0xFF : -1;
+    }
+
+    /**
+     * Стабильная сортировка вставками по байтам ключа начиная с позиции d
+     */
+    private void insertionSort(Bus[] buses, int lo, int hi, int d) {
+        for (int i = lo + 1; i < hi; i++) {
+            Bus current = buses[i];
+            byte[] currentKey = keys[i];
+            int j = i - 1;
+            while (j >= lo && Arrays.compareUnsigned(keys[j], Math.min(d, keys[j].length), keys[j].length,
+                    currentKey, Math.min(d, currentKey.length), currentKey.length) > 0) {
+                buses[j + 1] = buses[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            buses[j + 1] = current;
+            keys[j + 1] = currentKey;
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (keys == null || keys.length < n) {
+            keys = new byte[n][];
+            keyBuffer = new byte[n][];
+            busBuffer = new Bus[n];
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Сортировка по нормализованным байтовым ключам (MSD radix)";
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.util.Comparator;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Параллельное слияние двух отсортированных диапазонов src[lo1...hi1) и src[lo2...hi2)
+ * в dst начиная с позиции dest. Результат делится на parts равных кусков, для границы
+ * каждого куска бинарным поиском (co-ranking) находится, сколько элементов в него
+ * приходит из левого и правого диапазона, и куски сливаются независимо друг от друга
+ * ядром TimSortStrategy.mergeInto. При равенстве левый элемент идёт первым, как
+ * и при обычном слиянии, поэтому результат стабилен и не зависит от parts.
+ * Если сортировку остановили (SortControl), кусок не сливается, а просто переносится в dst:
+ * там всё равно оказывается целая перестановка исходных элементов.
+ */
+class ParallelMerge extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    static final int MIN_PART = 1 << 12; // меньшие куски не выгодно отдавать отдельному потоку
+
+    private final Comparator<Bus> comparator;
+    private final Bus[] src;
+    private final int lo1;
+    private final int hi1;
+    private final int lo2;
+    private final int hi2;
+    private final Bus[] dst;
+    private final int dest;
+    private final int parts;
+    private final SortControl control; // null - без отмены
+
+    ParallelMerge(Comparator<Bus> comparator, Bus[] src, int lo1, int hi1, int lo2, int hi2,
+                  Bus[] dst, int dest, int parts) {
+        this(comparator, src, lo1, hi1, lo2, hi2, dst, dest, parts, null);
+    }
+
+    ParallelMerge(Comparator<Bus> comparator, Bus[] src, int lo1, int hi1, int lo2, int hi2,
+                  Bus[] dst, int dest, int parts, SortControl control) {
+        this.comparator = comparator;
+        this.src = src;
+        this.lo1 = lo1;
+        this.hi1 = hi1;
+        this.lo2 = lo2;
+        this.hi2 = hi2;
+        this.dst = dst;
+        this.dest = dest;
+        this.parts = parts;
+        this.control = control;
+    }
+
+    @Override
+    protected void compute() {
+        int n1 = hi1 - lo1;
+        int n2 = hi2 - lo2;
+        int total = n1 + n2;
+        if (control != null && control.isStopRequested()) {
+            System.arraycopy(src, lo1, dst, dest, n1);
+            System.arraycopy(src, lo2, dst, dest + n1, n2);
+            return;
+        }
+        int pieces = Math.min(parts, total / MIN_PART);
+        if (pieces <= 1) {
+            new TimSortStrategy(comparator, true).mergeInto(src, lo1, hi1, lo2, hi2, dst, dest);
+            return;
+        }
+
+        ParallelMerge[] tasks = new ParallelMerge[pieces];
+        int k0 = 0;
+        int i0 = 0;
+        for (int p = 0; p < pieces; p++) {
+            int k1 = (int) ((long) total * (p + 1) / pieces);
+            int i1 = p == pieces - 1 ? n1 : coRank(comparator, src, lo1, n1, lo2, n2, k1);
+            int j0 = k0 - i0;
+            int j1 = k1 - i1;
+            tasks[p] = new ParallelMerge(comparator, src, lo1 + i0, lo1 + i1, lo2 + j0, lo2 + j1,
+                    dst, dest + k0, 1, control);
+            k0 = k1;
+            i0 = i1;
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * Сколько элементов левого диапазона попадает в первые k элементов результата слияния.
+     * Ищется наименьшее i, при котором левый элемент i уже не должен идти раньше
+     * правого элемента k - i - 1 (то есть строго больше его).
+     */
+    static int coRank(Comparator<Bus> comparator, Bus[] src, int lo1, int n1, int lo2, int n2, int k) {
+        int lo = Math.max(0, k - n2);
+        int hi = Math.min(k, n1);
+        while (lo < hi) {
+            int i = (lo + hi) >>> 1;
+            int j = k - i;
+            if (comparator.compare(src[lo1 + i], src[lo2 + j - 1]) <= 0) {
+                lo = i + 1;
+            } else {
+                hi = i;
+            }
+        }
+        return lo;
+    }
+}
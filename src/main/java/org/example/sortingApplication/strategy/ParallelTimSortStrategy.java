@@ -0,0 +1,172 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Параллельный TimSort: массив делится пополам, пока куски не станут меньше порога,
+ * куски сортируются TimSort'ом в отдельных задачах, а затем сливаются деревом fork/join.
+ * Работает в собственном пуле потоков, а не в общем ForkJoinPool.commonPool().
+ * Большие слияния сами делятся на независимые куски (ParallelMerge), поэтому все потоки
+ * заняты и на верхних уровнях дерева, где слияний меньше, чем ядер.
+ * Сортировка стабильна, поэтому результат совпадает с TimSortStrategy при любом числе потоков.
+ * При сортировке с SortControl задачи опрашивают отмену и лимит времени; остановленная задача
+ * не сортирует и не сливает свой кусок, а только переносит его в нужный массив, поэтому
+ * после SortCancelledException массив - целая перестановка исходного. Ход работы
+ * сообщается только в начале и в конце.
+ * Пул, созданный конструктором по числу потоков, принадлежит стратегии и останавливается в close();
+ * пул, переданный снаружи, остаётся на ответственности вызывающего кода.
+ */
+public class ParallelTimSortStrategy implements SortStrategy, AutoCloseable {
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 1 << 13; // меньшие куски сортируются в одном потоке
+
+    private final Comparator<Bus> comparator;
+    private final ForkJoinPool pool;
+    private final int sequentialCutoff;
+    private final boolean ownsPool; // пул создан стратегией, и close() его останавливает
+
+    private Bus[] buffer; // переиспользуется между сортировками; между ними ссылок не держит
+
+    /**
+     * Создаёт собственный пул по числу ядер; стратегию нужно закрыть после использования
+     */
+    public ParallelTimSortStrategy(Comparator<Bus> comparator) {
+        this(comparator, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Создаёт собственный пул из parallelism потоков; стратегию нужно закрыть после использования
+     */
+    public ParallelTimSortStrategy(Comparator<Bus> comparator, int parallelism) {
+        this(comparator, new ForkJoinPool(parallelism), DEFAULT_SEQUENTIAL_CUTOFF, true);
+    }
+
+    /**
+     * @param pool             пул, в котором выполняется сортировка; close() его не останавливает
+     * @param sequentialCutoff размер куска, который сортируется без дальнейшего деления
+     */
+    public ParallelTimSortStrategy(Comparator<Bus> comparator, ForkJoinPool pool, int sequentialCutoff) {
+        this(comparator, pool, sequentialCutoff, false);
+    }
+
+    private ParallelTimSortStrategy(Comparator<Bus> comparator, ForkJoinPool pool, int sequentialCutoff,
+                                    boolean ownsPool) {
+        if (sequentialCutoff < 2) {
+            throw new IllegalArgumentException("Порог последовательной сортировки должен быть не меньше 2");
+        }
+        this.comparator = comparator;
+        this.pool = pool;
+        this.sequentialCutoff = sequentialCutoff;
+        this.ownsPool = ownsPool;
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        if (buses == null || buses.length <= 1) {
+            return buses;
+        }
+        if (buses.length <= sequentialCutoff || pool.getParallelism() == 1) {
+            return new TimSortStrategy(comparator, true).sort(buses);
+        }
+        sortInPool(buses, null);
+        return buses;
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        if (buses == null || buses.length <= sequentialCutoff || pool.getParallelism() == 1) {
+            return new TimSortStrategy(comparator, true).sort(buses, control);
+        }
+        control.checkpoint(0, buses.length);
+        sortInPool(buses, control);
+        control.throwIfStopped(); // задачи могли остановиться на полпути
+        control.finish(buses.length);
+        return buses;
+    }
+
+    private void sortInPool(Bus[] buses, SortControl control) {
+        if (buffer == null || buffer.length < buses.length) {
+            buffer = new Bus[buses.length];
+        }
+        try {
+            pool.invoke(new SortTask(buses, buffer, 0, buses.length, false, control));
+        } finally {
+            Arrays.fill(buffer, 0, buses.length, null); // буфер не должен держать прошлую коллекцию
+        }
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Останавливает пул, если стратегия создала его сама; переданный снаружи пул не трогается
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Параллельный TimSort (fork/join, потоков: " + pool.getParallelism() + ")";
+    }
+
+    /**
+     * Сортирует кусок [lo...hi). Данные лежат в array, результат должен оказаться
+     * в buffer, если toBuffer, иначе в array. Дети пишут результат в противоположный
+     * массив, поэтому каждое слияние идёт из одного массива в другой без копирования назад.
+     */
+    private class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Bus[] array;
+        private final Bus[] buffer;
+        private final int lo;
+        private final int hi;
+        private final boolean toBuffer;
+        private final SortControl control; // null - без отмены
+
+        SortTask(Bus[] array, Bus[] buffer, int lo, int hi, boolean toBuffer, SortControl control) {
+            this.array = array;
+            this.buffer = buffer;
+            this.lo = lo;
+            this.hi = hi;
+            this.toBuffer = toBuffer;
+            this.control = control;
+        }
+
+        @Override
+        protected void compute() {
+            if (control != null && control.isStopRequested()) {
+                // Кусок ещё никто не трогал - он лежит в array; переносим туда, где его ждёт родитель
+                if (toBuffer) {
+                    System.arraycopy(array, lo, buffer, lo, hi - lo);
+                }
+                return;
+            }
+            if (hi - lo <= sequentialCutoff) {
+                new TimSortStrategy(comparator, true).sortRange(array, lo, hi);
+                if (toBuffer) {
+                    System.arraycopy(array, lo, buffer, lo, hi - lo);
+                }
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SortTask(array, buffer, lo, mid, !toBuffer, control),
+                      new SortTask(array, buffer, mid, hi, !toBuffer, control));
+
+            // Если сортировку остановили, слияние только перенесёт половины в dst
+            Bus[] src = toBuffer ? array : buffer;
+            Bus[] dst = toBuffer ? buffer : array;
+            new ParallelMerge(comparator, src, lo, mid, mid, hi, dst, lo, pool.getParallelism(), control).compute();
+        }
+    }
+}
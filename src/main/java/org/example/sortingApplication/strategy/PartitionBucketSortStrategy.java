@@ -0,0 +1,265 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Сортировка раскладкой по первому полю: если у первого поля BusComparator мало различных
+ * значений (например, модель), общее слияние не нужно. Один параллельный проход считает,
+ * сколько автобусов в каждом куске массива приходится на каждое значение, второй раскладывает
+ * их по корзинам, упорядоченным по значению. Затем каждая корзина независимо сортируется
+ * по остальным полям в своей задаче пула, и корзины уже стоят друг за другом.
+ * Раскладка идёт по кускам массива по порядку, поэтому сортировка стабильна.
+ * Если различных значений больше MAX_BUCKETS, выполняется обычный параллельный TimSort.
+ * Исходный массив перезаписывается только последним копированием, поэтому отмена (SortControl),
+ * проверяемая между этапами и перед сортировкой каждой корзины, оставляет его нетронутым.
+ */
+public class PartitionBucketSortStrategy implements SortStrategy {
+    public static final int MAX_BUCKETS = 1024;
+    private static final int MIN_CHUNK_SIZE = 1 << 14;     // меньшие куски не стоят отдельной задачи
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13; // меньшие массивы сортируются TimSort'ом
+
+    private final BusComparator comparator;
+    private final ForkJoinPool pool;
+    private final String primaryField;
+    private final BusComparator primaryComparator; // только первое поле - для порядка корзин
+    private final BusComparator restComparator;    // остальные поля; null, если их нет
+
+    private int lastBucketCount;
+
+    public PartitionBucketSortStrategy(BusComparator comparator, ForkJoinPool pool) {
+        this.comparator = comparator;
+        this.pool = pool;
+        List<String> fields = comparator.getFieldOrder();
+        this.primaryField = fields.get(0);
+        boolean caseSensitive = comparator.isCaseSensitive();
+        // Повтор поля ничего не меняет в порядке, зато в компараторе нет пустых полей
+        this.primaryComparator = new BusComparator(primaryField, primaryField, primaryField, caseSensitive);
+        List<String> rest = fields.subList(1, fields.size());
+        this.restComparator = rest.isEmpty() ? null
+                : new BusComparator(rest.get(0), rest.get(rest.size() - 1), rest.get(rest.size() - 1), caseSensitive);
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        return sortWith(buses, null);
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        return sortWith(buses, control);
+    }
+
+    /**
+     * @param control null - без отмены и отчёта о ходе работы
+     */
+    private Bus[] sortWith(Bus[] buses, SortControl control) {
+        int n = buses == null ? 0 : buses.length;
+        if (n < SEQUENTIAL_THRESHOLD) {
+            lastBucketCount = 0;
+            TimSortStrategy timSort = new TimSortStrategy(comparator, true);
+            return control == null ? timSort.sort(buses) : timSort.sort(buses, control);
+        }
+        if (control != null) {
+            control.checkpoint(0, n);
+        }
+
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, n / MIN_CHUNK_SIZE));
+        int chunkSize = (n + chunks - 1) / chunks;
+
+        // 1. Номер значения первого поля для каждого автобуса (свой словарь в каждом куске)
+        int[] localBucket = new int[n];
+        List<List<Bus>> localKeys = new ArrayList<>(); // представитель каждого значения куска
+        List<Map<Object, Integer>> localIds = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            localKeys.add(new ArrayList<>());
+            localIds.add(new HashMap<>());
+        }
+        AtomicBoolean tooMany = new AtomicBoolean();
+        forEachChunk(chunks, c -> {
+            Map<Object, Integer> ids = localIds.get(c);
+            List<Bus> keys = localKeys.get(c);
+            for (int i = c * chunkSize, end = Math.min(i + chunkSize, n); i < end; i++) {
+                Object key = keyOf(buses[i]);
+                Integer id = ids.get(key);
+                if (id == null) {
+                    if (ids.size() == MAX_BUCKETS || tooMany.get()) {
+                        tooMany.set(true);
+                        return;
+                    }
+                    id = ids.size();
+                    ids.put(key, id);
+                    keys.add(buses[i]);
+                }
+                localBucket[i] = id;
+            }
+        });
+
+        // 2. Общий словарь значений, корзины по порядку значений
+        Map<Object, Integer> globalIds = new HashMap<>();
+        List<Bus> representatives = new ArrayList<>();
+        int[][] toGlobal = new int[chunks][];
+        for (int c = 0; c < chunks && !tooMany.get(); c++) {
+            List<Bus> keys = localKeys.get(c);
+            toGlobal[c] = new int[keys.size()];
+            for (int j = 0; j < keys.size(); j++) {
+                Object key = keyOf(keys.get(j));
+                Integer id = globalIds.get(key);
+                if (id == null) {
+                    id = globalIds.size();
+                    globalIds.put(key, id);
+                    representatives.add(keys.get(j));
+                }
+                toGlobal[c][j] = id;
+            }
+            if (globalIds.size() > MAX_BUCKETS) {
+                tooMany.set(true);
+            }
+        }
+        if (tooMany.get()) {
+            lastBucketCount = 0;
+            ParallelTimSortStrategy parallel = new ParallelTimSortStrategy(comparator, pool,
+                    ParallelTimSortStrategy.DEFAULT_SEQUENTIAL_CUTOFF);
+            return control == null ? parallel.sort(buses) : parallel.sort(buses, control);
+        }
+        throwIfStopped(control);
+
+        int buckets = representatives.size();
+        Integer[] byKey = new Integer[buckets];
+        for (int b = 0; b < buckets; b++) {
+            byKey[b] = b;
+        }
+        Arrays.sort(byKey, (x, y) -> primaryComparator.compare(representatives.get(x), representatives.get(y)));
+        int[] rank = new int[buckets];
+        for (int r = 0; r < buckets; r++) {
+            rank[byKey[r]] = r;
+        }
+        for (int[] ids : toGlobal) {
+            for (int j = 0; j < ids.length; j++) {
+                ids[j] = rank[ids[j]];
+            }
+        }
+
+        // 3. Сколько автобусов каждого куска в каждой корзине и куда кусок пишет свою часть корзины
+        int[][] position = new int[chunks][buckets];
+        forEachChunk(chunks, c -> {
+            int[] counts = position[c];
+            int[] ids = toGlobal[c];
+            for (int i = c * chunkSize, end = Math.min(i + chunkSize, n); i < end; i++) {
+                counts[ids[localBucket[i]]]++;
+            }
+        });
+        int[] bucketStart = new int[buckets + 1];
+        int offset = 0;
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b] = offset;
+            for (int c = 0; c < chunks; c++) {
+                int count = position[c][b];
+                position[c][b] = offset;
+                offset += count;
+            }
+        }
+        bucketStart[buckets] = n;
+
+        throwIfStopped(control);
+
+        // 4. Раскладка: каждый кусок пишет в свои участки корзин, порядок внутри куска сохраняется
+        Bus[] buffer = new Bus[n];
+        forEachChunk(chunks, c -> {
+            int[] next = position[c];
+            int[] ids = toGlobal[c];
+            for (int i = c * chunkSize, end = Math.min(i + chunkSize, n); i < end; i++) {
+                buffer[next[ids[localBucket[i]]]++] = buses[i];
+            }
+        });
+
+        // 5. Каждая корзина сортируется по остальным полям независимо, затем всё копируется обратно
+        if (restComparator != null) {
+            forEachChunk(buckets, b -> {
+                if (control == null || !control.isStopRequested()) {
+                    new TimSortStrategy(restComparator, true).sortRange(buffer, bucketStart[b], bucketStart[b + 1]);
+                }
+            });
+        }
+        throwIfStopped(control); // до копирования: исходный массив ещё не тронут
+        forEachChunk(chunks, c -> {
+            int from = c * chunkSize;
+            System.arraycopy(buffer, from, buses, from, Math.min(from + chunkSize, n) - from);
+        });
+        lastBucketCount = buckets;
+        if (control != null) {
+            control.finish(n);
+        }
+        return buses;
+    }
+
+    private static void throwIfStopped(SortControl control) {
+        if (control != null) {
+            control.throwIfStopped();
+        }
+    }
+
+    /**
+     * Значение первого поля, по которому автобусы делятся на корзины.
+     * Без учёта регистра строки приводятся так же, как их сравнивает compareToIgnoreCase.
+     */
+    private Object keyOf(Bus bus) {
+        switch (primaryField) {
+            case "номер":
+                return foldIfNeeded(bus.getBusNumber());
+            case "модель":
+                return foldIfNeeded(bus.getModel());
+            default:
+                return bus.getMileage();
+        }
+    }
+
+    private String foldIfNeeded(String value) {
+        if (comparator.isCaseSensitive()) {
+            return value;
+        }
+        char[] folded = new char[value.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = BusComparator.foldCase(value.charAt(i));
+        }
+        return new String(folded);
+    }
+
+    /**
+     * Выполняет task для 0...count-1 параллельно в пуле стратегии
+     */
+    private void forEachChunk(int count, IntConsumer task) {
+        if (count == 1 || pool.getParallelism() == 1) {
+            for (int i = 0; i < count; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+        // Параллельный поток, запущенный из задачи пула, выполняется в этом же пуле
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).join();
+    }
+
+    /**
+     * Число корзин при последней сортировке; 0 - раскладка не понадобилась
+     * или значений оказалось слишком много и сработал параллельный TimSort
+     */
+    public int getLastBucketCount() {
+        return lastBucketCount;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Раскладка по значениям первого поля и параллельная сортировка корзин (потоков: "
+                + pool.getParallelism() + ")";
+    }
+}
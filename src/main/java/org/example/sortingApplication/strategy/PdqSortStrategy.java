@@ -0,0 +1,476 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.util.Comparator;
+
+/**
+ * Pattern-defeating quicksort (pdqsort, O. Peters): быстрая сортировка с
+ * - блочным разбиением без ветвлений (BlockQuicksort): сначала в буферы смещений
+ *   записываются позиции элементов не на своей стороне, потом они меняются местами пачкой;
+ * - распознаванием шаблонов: уже разбитые части досортировываются ограниченными вставками,
+ *   а при неудачном разбиении элементы перемешиваются, чтобы сломать шаблон;
+ * - запасным выбором опорного элемента медианой медиан, если неудачных разбиений слишком
+ *   много, поэтому худший случай - O(n log n).
+ * Обычная pdqsort нестабильна. В стабильном режиме равные по компаратору элементы
+ * сравниваются по исходной позиции, это стоит лишний массив int и немного времени.
+ */
+public class PdqSortStrategy implements SortStrategy {
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+    private static final int NINTHER_THRESHOLD = 128;
+    private static final int PARTIAL_INSERTION_SORT_LIMIT = 8;
+    private static final int BLOCK_SIZE = 64;
+
+    private final Comparator<Bus> comparator;
+    private final boolean stable;
+
+    // Состояние текущей сортировки
+    private Bus[] a;
+    private int[] tags; // исходные позиции элементов, только в стабильном режиме
+    private final int[] offsetsL = new int[BLOCK_SIZE];
+    private final int[] offsetsR = new int[BLOCK_SIZE];
+
+    public PdqSortStrategy(Comparator<Bus> comparator) {
+        this(comparator, false);
+    }
+
+    /**
+     * @param stable true - равные элементы сохраняют исходный порядок
+     */
+    public PdqSortStrategy(Comparator<Bus> comparator, boolean stable) {
+        this.comparator = comparator;
+        this.stable = stable;
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        if (buses == null || buses.length <= 1) {
+            return buses;
+        }
+        a = buses;
+        if (stable) {
+            tags = new int[buses.length];
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = i;
+            }
+        }
+        try {
+            pdqLoop(0, buses.length, log2(buses.length), true);
+        } finally {
+            a = null;
+            tags = null;
+        }
+        return buses;
+    }
+
+    private void pdqLoop(int begin, int end, int badAllowed, boolean leftmost) {
+        while (true) {
+            int size = end - begin;
+
+            if (size < INSERTION_SORT_THRESHOLD) {
+                if (leftmost) {
+                    insertionSort(begin, end);
+                } else {
+                    unguardedInsertionSort(begin, end);
+                }
+                return;
+            }
+
+            // Слишком много неудачных разбиений: медиана медиан гарантирует деление почти пополам
+            if (badAllowed <= 0) {
+                int mid = begin + size / 2;
+                select(begin, end, mid);
+                pdqLoop(begin, mid, 0, leftmost);
+                begin = mid + 1;
+                leftmost = false;
+                continue;
+            }
+
+            // Опорный элемент - медиана трёх или псевдомедиана девяти, ставится в begin
+            int s2 = size / 2;
+            if (size > NINTHER_THRESHOLD) {
+                sort3(begin, begin + s2, end - 1);
+                sort3(begin + 1, begin + (s2 - 1), end - 2);
+                sort3(begin + 2, begin + (s2 + 1), end - 3);
+                sort3(begin + (s2 - 1), begin + s2, begin + (s2 + 1));
+                swap(begin, begin + s2);
+            } else {
+                sort3(begin + s2, begin, end - 1);
+            }
+
+            // Если элемент слева от диапазона равен опорному, опорный - минимум диапазона:
+            // все равные ему элементы уходят влево и больше не участвуют в сортировке
+            if (!leftmost && compareAt(begin - 1, begin) >= 0) {
+                begin = partitionLeft(begin, end) + 1;
+                continue;
+            }
+
+            long part = partitionRightBranchless(begin, end);
+            int pivotPos = (int) (part >> 1);
+            boolean alreadyPartitioned = (part & 1) != 0;
+
+            int lSize = pivotPos - begin;
+            int rSize = end - (pivotPos + 1);
+            boolean highlyUnbalanced = lSize < size / 8 || rSize < size / 8;
+
+            if (highlyUnbalanced) {
+                badAllowed--;
+
+                // Перемешиваем элементы, чтобы сломать шаблон, который дал плохое разбиение
+                if (lSize >= INSERTION_SORT_THRESHOLD) {
+                    swap(begin, begin + lSize / 4);
+                    swap(pivotPos - 1, pivotPos - lSize / 4);
+                    if (lSize > NINTHER_THRESHOLD) {
+                        swap(begin + 1, begin + (lSize / 4 + 1));
+                        swap(begin + 2, begin + (lSize / 4 + 2));
+                        swap(pivotPos - 2, pivotPos - (lSize / 4 + 1));
+                        swap(pivotPos - 3, pivotPos - (lSize / 4 + 2));
+                    }
+                }
+                if (rSize >= INSERTION_SORT_THRESHOLD) {
+                    swap(pivotPos + 1, pivotPos + (1 + rSize / 4));
+                    swap(end - 1, end - rSize / 4);
+                    if (rSize > NINTHER_THRESHOLD) {
+                        swap(pivotPos + 2, pivotPos + (2 + rSize / 4));
+                        swap(pivotPos + 3, pivotPos + (3 + rSize / 4));
+                        swap(end - 2, end - (1 + rSize / 4));
+                        swap(end - 3, end - (2 + rSize / 4));
+                    }
+                }
+            } else if (alreadyPartitioned
+                    && partialInsertionSort(begin, pivotPos)
+                    && partialInsertionSort(pivotPos + 1, end)) {
+                // Разбиение ничего не переставило и обе части почти отсортированы - готово
+                return;
+            }
+
+            // Левая часть - рекурсивно, правая - в этом же цикле. Левая сортируется первой:
+            // её последний элемент служит ограничителем для unguardedInsertionSort справа
+            pdqLoop(begin, pivotPos, badAllowed, leftmost);
+            begin = pivotPos + 1;
+            leftmost = false;
+        }
+    }
+
+    /**
+     * Разбиение вокруг a[begin]: слева элементы меньше опорного, справа - не меньше.
+     * Возвращает (позиция опорного << 1) | (1, если массив уже был разбит).
+     */
+    private long partitionRightBranchless(int begin, int end) {
+        Bus pivot = a[begin];
+        int pivotTag = tag(begin);
+        int first = begin;
+        int last = end;
+
+        // Первый элемент не меньше опорного (медиана трёх гарантирует, что он есть)
+        while (compare(a[++first], tag(first), pivot, pivotTag) < 0) ;
+
+        // Последний элемент меньше опорного; если слева от first ничего нет, поиск нужно ограничить
+        if (first - 1 == begin) {
+            while (first < last && compare(a[--last], tag(last), pivot, pivotTag) >= 0) ;
+        } else {
+            while (compare(a[--last], tag(last), pivot, pivotTag) >= 0) ;
+        }
+
+        boolean alreadyPartitioned = first >= last;
+        if (!alreadyPartitioned) {
+            swap(first, last);
+            first++;
+
+            int[] offsetsL = this.offsetsL;
+            int[] offsetsR = this.offsetsR;
+            int offsetsLBase = first;
+            int offsetsRBase = last;
+            int numL = 0;
+            int numR = 0;
+            int startL = 0;
+            int startR = 0;
+
+            while (first < last) {
+                // Сколько ещё не просмотренных элементов берём в каждый блок
+                int numUnknown = last - first;
+                int leftSplit = numL == 0 ? (numR == 0 ? numUnknown / 2 : numUnknown) : 0;
+                int rightSplit = numR == 0 ? (numUnknown - leftSplit) : 0;
+
+                // Заполняем блоки смещений: позиция записывается всегда, а счётчик
+                // увеличивается на результат сравнения - без условного перехода
+                if (leftSplit > BLOCK_SIZE) {
+                    leftSplit = BLOCK_SIZE;
+                }
+                for (int i = 0; i < leftSplit; i++) {
+                    offsetsL[numL] = i;
+                    numL += compare(a[first], tag(first), pivot, pivotTag) >= 0 ? 1 : 0;
+                    first++;
+                }
+                if (rightSplit > BLOCK_SIZE) {
+                    rightSplit = BLOCK_SIZE;
+                }
+                for (int i = 0; i < rightSplit; ) {
+                    offsetsR[numR] = ++i;
+                    --last;
+                    numR += compare(a[last], tag(last), pivot, pivotTag) < 0 ? 1 : 0;
+                }
+
+                // Меняем местами найденные пары
+                int num = Math.min(numL, numR);
+                for (int i = 0; i < num; i++) {
+                    swap(offsetsLBase + offsetsL[startL + i], offsetsRBase - offsetsR[startR + i]);
+                }
+                numL -= num;
+                numR -= num;
+                startL += num;
+                startR += num;
+
+                if (numL == 0) {
+                    startL = 0;
+                    offsetsLBase = first;
+                }
+                if (numR == 0) {
+                    startR = 0;
+                    offsetsRBase = last;
+                }
+            }
+
+            // Оставшиеся элементы не на своей стороне переносим к границе
+            if (numL != 0) {
+                while (numL-- != 0) {
+                    swap(offsetsLBase + offsetsL[startL + numL], --last);
+                }
+                first = last;
+            }
+            if (numR != 0) {
+                while (numR-- != 0) {
+                    swap(offsetsRBase - offsetsR[startR + numR], first);
+                    first++;
+                }
+                last = first;
+            }
+        }
+
+        // Ставим опорный элемент на место
+        int pivotPos = first - 1;
+        a[begin] = a[pivotPos];
+        a[pivotPos] = pivot;
+        if (tags != null) {
+            tags[begin] = tags[pivotPos];
+            tags[pivotPos] = pivotTag;
+        }
+        return ((long) pivotPos << 1) | (alreadyPartitioned ? 1 : 0);
+    }
+
+    /**
+     * Разбиение, при котором равные опорному элементы уходят влево.
+     * Используется, когда опорный элемент равен элементу слева от диапазона.
+     */
+    private int partitionLeft(int begin, int end) {
+        Bus pivot = a[begin];
+        int pivotTag = tag(begin);
+        int first = begin;
+        int last = end;
+
+        while (compare(pivot, pivotTag, a[--last], tag(last)) < 0) ;
+        if (last + 1 == end) {
+            while (first < last && compare(pivot, pivotTag, a[++first], tag(first)) >= 0) ;
+        } else {
+            while (compare(pivot, pivotTag, a[++first], tag(first)) >= 0) ;
+        }
+
+        while (first < last) {
+            swap(first, last);
+            while (compare(pivot, pivotTag, a[--last], tag(last)) < 0) ;
+            while (compare(pivot, pivotTag, a[++first], tag(first)) >= 0) ;
+        }
+
+        int pivotPos = last;
+        a[begin] = a[pivotPos];
+        a[pivotPos] = pivot;
+        if (tags != null) {
+            tags[begin] = tags[pivotPos];
+            tags[pivotPos] = pivotTag;
+        }
+        return pivotPos;
+    }
+
+    private void insertionSort(int begin, int end) {
+        for (int cur = begin + 1; cur < end; cur++) {
+            if (compareAt(cur, cur - 1) < 0) {
+                Bus tmp = a[cur];
+                int tmpTag = tag(cur);
+                int sift = cur;
+                do {
+                    move(sift, sift - 1);
+                    sift--;
+                } while (sift != begin && compare(tmp, tmpTag, a[sift - 1], tag(sift - 1)) < 0);
+                set(sift, tmp, tmpTag);
+            }
+        }
+    }
+
+    /**
+     * Вставки без проверки границы: элемент слева от begin не больше любого в диапазоне
+     */
+    private void unguardedInsertionSort(int begin, int end) {
+        for (int cur = begin + 1; cur < end; cur++) {
+            if (compareAt(cur, cur - 1) < 0) {
+                Bus tmp = a[cur];
+                int tmpTag = tag(cur);
+                int sift = cur;
+                do {
+                    move(sift, sift - 1);
+                    sift--;
+                } while (compare(tmp, tmpTag, a[sift - 1], tag(sift - 1)) < 0);
+                set(sift, tmp, tmpTag);
+            }
+        }
+    }
+
+    /**
+     * Вставки, которые сдаются, если пришлось сдвинуть больше PARTIAL_INSERTION_SORT_LIMIT элементов
+     *
+     * @return true, если диапазон отсортирован
+     */
+    private boolean partialInsertionSort(int begin, int end) {
+        if (begin == end) {
+            return true;
+        }
+        int limit = 0;
+        for (int cur = begin + 1; cur < end; cur++) {
+            if (compareAt(cur, cur - 1) < 0) {
+                Bus tmp = a[cur];
+                int tmpTag = tag(cur);
+                int sift = cur;
+                do {
+                    move(sift, sift - 1);
+                    sift--;
+                } while (sift != begin && compare(tmp, tmpTag, a[sift - 1], tag(sift - 1)) < 0);
+                set(sift, tmp, tmpTag);
+                limit += cur - sift;
+            }
+            if (limit > PARTIAL_INSERTION_SORT_LIMIT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Переставляет a[lo...hi) так, что на позиции k стоит k-й по порядку элемент,
+     * слева - не большие, справа - не меньшие (алгоритм BFPRT, линейное время)
+     */
+    private void select(int lo, int hi, int k) {
+        while (hi - lo > INSERTION_SORT_THRESHOLD) {
+            int pivotIndex = medianOfMedians(lo, hi);
+
+            // Разбиение на три части: меньше, равно, больше опорного
+            swap(lo, pivotIndex);
+            Bus pivot = a[lo];
+            int pivotTag = tag(lo);
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i < gt) {
+                int c = compare(a[i], tag(i), pivot, pivotTag);
+                if (c < 0) {
+                    swap(lt++, i++);
+                } else if (c > 0) {
+                    swap(i, --gt);
+                } else {
+                    i++;
+                }
+            }
+
+            if (k < lt) {
+                hi = lt;
+            } else if (k >= gt) {
+                lo = gt;
+            } else {
+                return;
+            }
+        }
+        insertionSort(lo, hi);
+    }
+
+    /**
+     * Медиана медиан групп по пять: сортируем каждую группу, её медиану переносим в начало
+     * диапазона и рекурсивно выбираем медиану среди них
+     */
+    private int medianOfMedians(int lo, int hi) {
+        int groups = 0;
+        for (int groupLo = lo; groupLo < hi; groupLo += 5) {
+            int groupHi = Math.min(groupLo + 5, hi);
+            insertionSort(groupLo, groupHi);
+            swap(lo + groups, groupLo + (groupHi - groupLo - 1) / 2);
+            groups++;
+        }
+        int mid = lo + groups / 2;
+        select(lo, lo + groups, mid);
+        return mid;
+    }
+
+    private void sort2(int i, int j) {
+        if (compareAt(j, i) < 0) {
+            swap(i, j);
+        }
+    }
+
+    private void sort3(int i, int j, int k) {
+        sort2(i, j);
+        sort2(j, k);
+        sort2(i, j);
+    }
+
+    private int compareAt(int i, int j) {
+        return compare(a[i], tag(i), a[j], tag(j));
+    }
+
+    /**
+     * Сравнение с учетом исходной позиции в стабильном режиме
+     */
+    private int compare(Bus bus1, int tag1, Bus bus2, int tag2) {
+        int c = comparator.compare(bus1, bus2);
+        if (c == 0 && tags != null) {
+            return Integer.compare(tag1, tag2);
+        }
+        return c;
+    }
+
+    private int tag(int i) {
+        return tags == null ? 0 : tags[i];
+    }
+
+    private void swap(int i, int j) {
+        Bus t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+        if (tags != null) {
+            int tt = tags[i];
+            tags[i] = tags[j];
+            tags[j] = tt;
+        }
+    }
+
+    private void move(int to, int from) {
+        a[to] = a[from];
+        if (tags != null) {
+            tags[to] = tags[from];
+        }
+    }
+
+    private void set(int i, Bus bus, int tag) {
+        a[i] = bus;
+        if (tags != null) {
+            tags[i] = tag;
+        }
+    }
+
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    @Override
+    public String getDescription() {
+        return stable
+                ? "Pattern-defeating quicksort (стабильный режим)"
+                : "Pattern-defeating quicksort (нестабильная, быстрее TimSort на случайных данных)";
+    }
+}
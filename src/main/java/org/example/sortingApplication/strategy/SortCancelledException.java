@@ -0,0 +1,24 @@
+package org.example.sortingApplication.strategy;
+
+/**
+ * Сортировка прервана отменой или по лимиту времени. Массив при этом остаётся
+ * перестановкой исходного: ни один автобус не потерян и не продублирован,
+ * но порядок может быть отсортирован лишь частично.
+ */
+public class SortCancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean timedOut;
+
+    public SortCancelledException(String message, boolean timedOut) {
+        super(message);
+        this.timedOut = timedOut;
+    }
+
+    /**
+     * true - истёк лимит времени, false - сортировку отменили
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+}
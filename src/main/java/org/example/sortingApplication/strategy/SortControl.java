@@ -0,0 +1,110 @@
+package org.example.sortingApplication.strategy;
+
+import java.time.Duration;
+
+/**
+ * Управление долгой сортировкой: отмена из другого потока, лимит времени и отчёт о ходе работы.
+ * Стратегия вызывает checkpoint после каждого куска работы (блока, слияния, прохода);
+ * настоящая проверка выполняется не чаще, чем раз в CHECK_INTERVAL единиц работы,
+ * поэтому на скорость сортировки она почти не влияет.
+ * Отсчёт лимита времени идёт с создания; start() перезапускает его перед очередной
+ * сортировкой. Один экземпляр - на одну сортировку за раз.
+ * Отмена необратима: cancel(), вызванный даже до start(), останавливает эту и все
+ * следующие сортировки с этим экземпляром, поэтому после отмены нужен новый.
+ */
+public class SortControl {
+    static final long CHECK_INTERVAL = 1 << 15;
+
+    /**
+     * Получает ход работы: done из total условных единиц (done <= total)
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long done, long total);
+    }
+
+    private final Duration timeLimit;          // null - без ограничения
+    private final ProgressListener listener;   // null - без отчёта
+    private volatile boolean cancelled;
+
+    private long deadline;
+    private long nextCheck;
+
+    /**
+     * @param timeLimit лимит времени от создания (или от последнего start()), null - без ограничения
+     * @param listener  получатель хода работы, null - не нужен
+     */
+    public SortControl(Duration timeLimit, ProgressListener listener) {
+        this.timeLimit = timeLimit;
+        this.listener = listener;
+        start();
+    }
+
+    /**
+     * Начало сортировки: отсчёт лимита времени начинается заново; отмену не сбрасывает
+     */
+    public void start() {
+        nextCheck = 0;
+        deadline = timeLimit == null ? 0 : System.nanoTime() + timeLimit.toNanos();
+    }
+
+    /**
+     * Просит остановить сортировку; можно вызывать из любого потока
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Вызывается стратегией в точке, где массив - целая перестановка исходного
+     *
+     * @throws SortCancelledException если сортировку отменили или истёк лимит времени
+     */
+    public void checkpoint(long done, long total) {
+        if (done < nextCheck) {
+            return;
+        }
+        nextCheck = done + CHECK_INTERVAL;
+        if (listener != null) {
+            listener.onProgress(Math.min(done, total), total);
+        }
+        throwIfStopped();
+    }
+
+    /**
+     * Отменена ли сортировка или истёк лимит времени. Без отчёта о ходе работы и без
+     * прореживания, поэтому её можно вызывать из нескольких потоков одновременно:
+     * параллельные стратегии опрашивают её в задачах, доводят массив до целой перестановки
+     * и затем вызывают throwIfStopped.
+     */
+    public boolean isStopRequested() {
+        return cancelled || timeLimit != null && System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * То же, что isStopRequested, но с исключением
+     *
+     * @throws SortCancelledException если сортировку отменили или истёк лимит времени
+     */
+    public void throwIfStopped() {
+        if (cancelled) {
+            throw new SortCancelledException("Сортировка отменена", false);
+        }
+        if (timeLimit != null && System.nanoTime() - deadline > 0) {
+            throw new SortCancelledException("Превышен лимит времени " + timeLimit.toMillis() + " мс", true);
+        }
+    }
+
+    /**
+     * Сортировка завершена: последний отчёт о ходе работы, без проверок
+     */
+    public void finish(long total) {
+        if (listener != null) {
+            listener.onProgress(total, total);
+        }
+    }
+}
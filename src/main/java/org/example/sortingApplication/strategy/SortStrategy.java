@@ -2,7 +2,79 @@ package org.example.sortingApplication.strategy;
 
 import org.example.sortingApplication.domain.Bus;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 public interface SortStrategy {
     Bus[] sort(Bus[] buses);
     String getDescription();
+
+    /**
+     * Сортировка с возможностью отмены, лимитом времени и отчётом о ходе работы.
+     * По умолчанию проверка выполняется только перед началом: во время sort отмена и лимит
+     * времени не учитываются. Стратегии, которые умеют останавливаться на полпути,
+     * переопределяют метод. После SortCancelledException
+     * массив остаётся перестановкой исходного.
+     */
+    default Bus[] sort(Bus[] buses, SortControl control) {
+        int n = buses == null ? 0 : buses.length;
+        control.checkpoint(0, n);
+        Bus[] result = sort(buses);
+        control.finish(n);
+        return result;
+    }
+
+    /**
+     * Сортирует только buses[from...to), остальная часть массива не трогается.
+     * По умолчанию диапазон копируется, сортируется через sort и копируется обратно;
+     * стратегии, умеющие сортировать диапазон на месте, переопределяют метод.
+     */
+    default void sortRange(Bus[] buses, int from, int to) {
+        if (to - from <= 1) {
+            return;
+        }
+        Bus[] sorted = sort(Arrays.copyOfRange(buses, from, to));
+        System.arraycopy(sorted, 0, buses, from, to - from);
+    }
+
+    /**
+     * Сортировка без перемещения автобусов: массив не меняется, возвращается перестановка,
+     * где result[i] - индекс в buses автобуса, который стоит на i-м месте после сортировки.
+     * Так можно хранить несколько порядков одной коллекции и сортировать общий массив из разных потоков.
+     * По умолчанию сортируется копия массива через sort, и каждый автобус копии сопоставляется
+     * со своим индексом по ссылке; одновременные вызовы безопасны настолько же, насколько sort.
+     * Стратегии, которые сортируют индексы напрямую, переопределяют метод.
+     */
+    default int[] sortPermutation(Bus[] buses) {
+        int n = buses.length;
+        // Индексы каждого объекта по возрастанию: первый - в first, следующие - цепочкой в next
+        // (один и тот же автобус или null может стоять в массиве несколько раз)
+        Map<Bus, Integer> first = new IdentityHashMap<>();
+        int[] next = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            Integer previous = first.put(buses[i], i);
+            next[i] = previous == null ? -1 : previous;
+        }
+
+        Bus[] sorted = sort(buses.clone());
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            int index = first.get(sorted[i]);
+            permutation[i] = index;
+            first.put(sorted[i], next[index]);
+        }
+        return permutation;
+    }
+
+    /**
+     * Новый массив автобусов в порядке перестановки, полученной из sortPermutation
+     */
+    static Bus[] applyPermutation(Bus[] buses, int[] permutation) {
+        Bus[] result = new Bus[permutation.length];
+        for (int i = 0; i < permutation.length; i++) {
+            result[i] = buses[permutation[i]];
+        }
+        return result;
+    }
 }
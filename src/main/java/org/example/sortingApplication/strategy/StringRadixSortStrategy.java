@@ -0,0 +1,262 @@
+package org.example.sortingApplication.strategy;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+
+import java.util.Arrays;
+
+/**
+ * MSD radix сортировка по строковому полю ("номер" или "модель").
+ * Автобусы раскладываются по корзинам символ за символом, начиная с первого,
+ * поэтому общий префикс (например "AB" в номерах "AB123") просматривается один раз
+ * на группу, а не заново в каждом сравнении. Каждое раскладывание стабильно.
+ * Автобусы с полностью совпадающим ключом досортировываются остальными полями BusComparator.
+ * Поддерживаются оба режима BusComparator: с учетом и без учета регистра.
+ * Если первое поле компаратора - пробег, сортировка делегируется TimSort.
+ * Отмена и лимит времени проверяются каждый раз, когда группа автобусов встаёт на своё место.
+ */
+public class StringRadixSortStrategy implements SortStrategy {
+    private static final int RADIX = 256;              // корзин на один разряд (байт)
+    private static final int INSERTION_THRESHOLD = 16; // маленькие группы досортировываются вставками
+
+    private final BusComparator comparator;
+    private final TimSortStrategy timSort;
+    private final boolean byNumber;   // ключ - номер (иначе модель)
+    private final boolean stringKey;  // первое поле строковое
+    private final boolean tieBreak;   // есть ли поля для разрешения равных ключей
+
+    // Буферы переиспользуются между сортировками
+    private String[] keys;
+    private String[] keyBuffer;
+    private Bus[] busBuffer;
+    private boolean latin1; // все символы ключей (после свертки регистра) меньше 256 - один байт на символ
+
+    // Отмена и ход работы: задаются только на время sort(buses, control)
+    private SortControl control;
+    private long placed; // автобусов, уже стоящих на своих местах
+    private int total;
+
+    public StringRadixSortStrategy(BusComparator comparator) {
+        this.comparator = comparator;
+        this.timSort = new TimSortStrategy(comparator, true);
+
+        String primary = comparator.getPrimaryField() == null ? "" : comparator.getPrimaryField().toLowerCase();
+        this.byNumber = primary.equals("номер");
+        this.stringKey = byNumber || primary.equals("модель");
+        this.tieBreak = isTieBreakField(comparator.getSecondaryField(), primary)
+                || isTieBreakField(comparator.getTertiaryField(), primary);
+    }
+
+    private static boolean isTieBreakField(String field, String primary) {
+        return field != null && !field.toLowerCase().equals(primary);
+    }
+
+    @Override
+    public Bus[] sort(Bus[] buses) {
+        if (buses == null || buses.length <= 1) {
+            return buses;
+        }
+        if (!stringKey) {
+            return timSort.sort(buses);
+        }
+
+        int n = buses.length;
+        ensureCapacity(n);
+        latin1 = true;
+        for (int i = 0; i < n; i++) {
+            String key = byNumber ? buses[i].getBusNumber() : buses[i].getModel();
+            keys[i] = key;
+            if (latin1) {
+                for (int c = 0; c < key.length(); c++) {
+                    if (fold(key.charAt(c)) > 0xFF) {
+                        latin1 = false;
+                        break;
+                    }
+                }
+            }
+        }
+
+        placed = 0;
+        total = n;
+        try {
+            reportPlaced(0);
+            msdSort(buses, 0, n, 0);
+        } finally {
+            // Буферы переживают сортировку - ключи и автобусы в них не держим
+            Arrays.fill(keys, 0, n, null);
+            Arrays.fill(keyBuffer, 0, n, null);
+            Arrays.fill(busBuffer, 0, n, null);
+        }
+        return buses;
+    }
+
+    /**
+     * Ход работы - число автобусов, уже стоящих на своих местах; проверки идут между
+     * раскладываниями, когда массив - целая перестановка исходного
+     */
+    @Override
+    public Bus[] sort(Bus[] buses, SortControl control) {
+        if (buses == null || buses.length <= 1 || !stringKey) {
+            return timSort.sort(buses, control);
+        }
+        this.control = control;
+        try {
+            sort(buses);
+        } finally {
+            this.control = null;
+        }
+        control.finish(buses.length);
+        return buses;
+    }
+
+    /**
+     * Сортирует buses[lo...hi), у которых совпадают первые d разрядов ключа
+     */
+    private void msdSort(Bus[] buses, int lo, int hi, int d) {
+        int[] count = new int[RADIX + 2];
+        while (true) {
+            int n = hi - lo;
+            if (n <= INSERTION_THRESHOLD) {
+                insertionSort(buses, lo, hi, latin1 ? d : d >>> 1);
+                reportPlaced(n);
+                return;
+            }
+
+            Arrays.fill(count, 0);
+            for (int i = lo; i < hi; i++) {
+                count[digit(keys[i], d) + 2]++;
+            }
+
+            // Все ключи попали в одну корзину - раскладывать нечего, переходим к следующему разряду
+            int single = -1;
+            for (int r = 1; r < count.length; r++) {
+                if (count[r] == n) {
+                    single = r;
+                    break;
+                }
+            }
+            if (single == 1) {
+                sortTies(buses, lo, hi); // все ключи закончились - они равны
+                reportPlaced(n);
+                return;
+            }
+            if (single > 1) {
+                d++;
+                continue;
+            }
+
+            for (int r = 0; r < RADIX + 1; r++) {
+                count[r + 1] += count[r];
+            }
+            for (int i = lo; i < hi; i++) {
+                int target = count[digit(keys[i], d) + 1]++;
+                busBuffer[target] = buses[i];
+                keyBuffer[target] = keys[i];
+            }
+            System.arraycopy(busBuffer, 0, buses, lo, n);
+            System.arraycopy(keyBuffer, 0, keys, lo, n);
+
+            // Корзина "ключ закончился" содержит равные ключи, остальные сортируем по следующему разряду
+            if (count[0] > 1) {
+                sortTies(buses, lo, lo + count[0]);
+            }
+            reportPlaced(count[0]);
+            for (int r = 0; r < RADIX; r++) {
+                int size = count[r + 1] - count[r];
+                if (size > 1) {
+                    msdSort(buses, lo + count[r], lo + count[r + 1], d + 1);
+                } else {
+                    reportPlaced(size);
+                }
+            }
+            return;
+        }
+    }
+
+    /**
+     * Разряд d ключа или -1, если ключ закончился. Если все символы однобайтовые,
+     * разряд - это символ, иначе каждый символ дает два разряда: старший и младший байт.
+     */
+    private int digit(String key, int d) {
+        if (latin1) {
+            return d < key.length() ? fold(key.charAt(d)) : -1;
+        }
+        int index = d >>> 1;
+        if (index >= key.length()) {
+            return -1;
+        }
+        char c = fold(key.charAt(index));
+        return (d & 1) == 0 ? c >>> 8 : c & 0xFF;
+    }
+
+    /**
+     * Стабильная сортировка вставками. Первые from символов у всех ключей группы совпадают,
+     * поэтому сравнение начинается с позиции from.
+     */
+    private void insertionSort(Bus[] buses, int lo, int hi, int from) {
+        for (int i = lo + 1; i < hi; i++) {
+            Bus current = buses[i];
+            String currentKey = keys[i];
+            int j = i - 1;
+            while (j >= lo && compareFrom(buses[j], keys[j], current, currentKey, from) > 0) {
+                buses[j + 1] = buses[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            buses[j + 1] = current;
+            keys[j + 1] = currentKey;
+        }
+    }
+
+    private int compareFrom(Bus bus1, String key1, Bus bus2, String key2, int from) {
+        int length = Math.min(key1.length(), key2.length());
+        for (int i = from; i < length; i++) {
+            char c1 = fold(key1.charAt(i));
+            char c2 = fold(key2.charAt(i));
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        if (key1.length() != key2.length()) {
+            return key1.length() - key2.length();
+        }
+        return tieBreak ? comparator.compare(bus1, bus2) : 0;
+    }
+
+    /**
+     * Ключи в buses[lo...hi) равны: порядок определяют остальные поля компаратора
+     */
+    private void sortTies(Bus[] buses, int lo, int hi) {
+        if (tieBreak) {
+            timSort.sortRange(buses, lo, hi);
+        }
+    }
+
+    /**
+     * Символ в том виде, в котором его сравнивает BusComparator:
+     * без учета регистра сравнение идет как в String.compareToIgnoreCase
+     */
+    private char fold(char c) {
+        return comparator.isCaseSensitive() ? c : BusComparator.foldCase(c);
+    }
+
+    private void reportPlaced(int count) {
+        placed += count;
+        if (control != null) {
+            control.checkpoint(placed, total);
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (keys == null || keys.length < n) {
+            keys = new String[n];
+            keyBuffer = new String[n];
+            busBuffer = new Bus[n];
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Поразрядная сортировка по строковому полю (MSD radix, стабильная)";
+    }
+}
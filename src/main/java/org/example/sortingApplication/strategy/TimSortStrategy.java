@@ -3,14 +3,54 @@ package org.example.sortingApplication.strategy;
 import org.example.sortingApplication.domain.Bus;
 import org.example.sortingApplication.domain.BusCollection;
 
+import java.util.Arrays;
 import java.util.Comparator;
 
+/**
+ * Экземпляр хранит состояние сортировки (стек серий, буфер слияния) и переиспользует
+ * его между вызовами, поэтому не потокобезопасен: для каждого потока нужен свой экземпляр.
+ */
 public class TimSortStrategy implements SortStrategy {
     private static final int MIN_MERGE = 32;
+    private static final int MIN_GALLOP = 7; // начальный порог перехода в режим галопа
     private final Comparator<Bus> comparator;
+    private final boolean naturalRuns; // искать ли уже упорядоченные серии во входных данных
+    private final MileageInsertionKernel smallKernel; // вставки по int-ключам, если первое поле - пробег
+
+    // Стек серий для режима естественных серий: начало и длина каждой ещё не слитой серии
+    private int[] runBase;
+    private int[] runLen;
+    private int stackSize;
+
+    // Буфер слияний: выделяется один раз на сортировку и переиспользуется при повторных сортировках.
+    // После сортировки ссылки из него убираются, чтобы буфер не держал в памяти прошлую коллекцию
+    private Bus[] tmp;
+    private int tmpUsed; // сколько первых ячеек буфера могло получить ссылки
+
+    private int minGallop = MIN_GALLOP; // адаптивный порог: уменьшается, когда галоп себя оправдывает
+    private long comparisons;           // счётчик вызовов компаратора
+
+    // Отмена и ход работы: задаются только на время sort(array, control)
+    private SortControl control;
+    private long workDone;   // перемещённых элементов (запись в серию или слияние)
+    private long workTotal;  // оценка общего объёма работы в тех же единицах
 
     public TimSortStrategy(Comparator<Bus> comparator) {
+        this(comparator, false);
+    }
+
+    /**
+     * @param naturalRuns true - искать естественные серии (классический TimSort),
+     *                    false - резать массив на блоки фиксированного размера MIN_MERGE
+     */
+    public TimSortStrategy(Comparator<Bus> comparator, boolean naturalRuns) {
         this.comparator = comparator;
+        this.naturalRuns = naturalRuns;
+        this.smallKernel = MileageInsertionKernel.forComparator(comparator);
+    }
+
+    public boolean isNaturalRuns() {
+        return naturalRuns;
     }
 
     /**
@@ -22,39 +62,328 @@ public class TimSortStrategy implements SortStrategy {
             return array;
         }
 
-        int n = array.length;
+        sortRange(array, 0, array.length);
+        return array;
+    }
+
+    /**
+     * Проверяет отмену и лимит времени после каждого блока вставок, слияния серий
+     * или прохода слияния; в этих точках массив - целая перестановка исходного
+     */
+    @Override
+    public Bus[] sort(Bus[] array, SortControl control) {
+        control.checkpoint(0, array == null ? 0 : array.length); // отмена до начала, в том числе для коротких массивов
+        if (array == null || array.length <= 1) {
+            control.finish(array == null ? 0 : array.length);
+            return array;
+        }
+
+        this.control = control;
+        try {
+            sortRange(array, 0, array.length);
+        } finally {
+            this.control = null;
+        }
+        control.finish(workTotal);
+        return array;
+    }
+
+    /**
+     * Перестановка вместо перемещения автобусов; массив не меняется.
+     * В отличие от sort не использует состояние экземпляра, поэтому безопасна
+     * при одновременных вызовах из нескольких потоков.
+     */
+    @Override
+    public int[] sortPermutation(Bus[] array) {
+        int[] permutation = new int[array.length];
+        for (int i = 0; i < permutation.length; i++) {
+            permutation[i] = i;
+        }
+        IndexTimSort.sort(array, permutation, 0, permutation.length, comparator);
+        return permutation;
+    }
+
+    /**
+     * Сортирует только array[from...to), остальная часть массива не трогается
+     */
+    @Override
+    public void sortRange(Bus[] array, int from, int to) {
+        comparisons = 0;
+        minGallop = MIN_GALLOP;
+        if (to - from <= 1) {
+            return;
+        }
+
+        int n = to - from;
+        workDone = 0;
+        try {
+            if (naturalRuns) {
+                // Запись в серии плюс примерно log2(число серий) уровней слияния
+                long runs = (n + MIN_MERGE - 1) / MIN_MERGE;
+                workTotal = n * (1L + (64 - Long.numberOfLeadingZeros(runs - 1)));
+                sortNaturalRuns(array, from, to);
+            } else {
+                long blocks = (n + MIN_MERGE - 1) / MIN_MERGE;
+                workTotal = n * (1L + (64 - Long.numberOfLeadingZeros(blocks - 1)));
+                sortFixedBlocks(array, from, to);
+            }
+        } finally {
+            releaseBuffer();
+        }
+    }
+
+    private void sortFixedBlocks(Bus[] array, int lo, int hi) {
+        int n = hi - lo;
 
         // 1. Сортируем маленькие подмассивы сортировкой вставками
-        for (int i = 0; i < n; i += MIN_MERGE) {
-            int end = Math.min(i + MIN_MERGE - 1, n - 1);
+        for (int i = lo; i < hi; i += MIN_MERGE) {
+            int end = Math.min(i + MIN_MERGE - 1, hi - 1);
             insertionSort(array, i, end);
+            reportProgress(end - i + 1);
+        }
+        if (n <= MIN_MERGE) {
+            return;
         }
 
-        // 2. Сливаем подмассивы возрастающего размера
+        // 2. Сливаем подмассивы возрастающего размера. Проходы чередуют массив и буфер:
+        // каждый проход пишет в другой массив, поэтому копировать результат обратно
+        // после каждого слияния не нужно
+        Bus[] src = array;
+        int srcBase = lo;
+        Bus[] dst = ensureCapacity(n);
+        int dstBase = 0;
         for (int size = MIN_MERGE; size < n; size = 2 * size) {
             for (int left = 0; left < n; left += 2 * size) {
-                int mid = left + size - 1;
-                int right = Math.min(left + 2 * size - 1, n - 1);
+                int mid = Math.min(left + size, n);
+                int right = Math.min(left + 2 * size, n);
+                mergeInto(src, srcBase + left, srcBase + mid, srcBase + mid, srcBase + right, dst, dstBase + left);
+            }
+            Bus[] swap = src;
+            src = dst;
+            dst = swap;
+            int swapBase = srcBase;
+            srcBase = dstBase;
+            dstBase = swapBase;
 
-                // Сливаем только если есть что сливать
-                if (mid < right) {
-                    merge(array, left, mid, right);
+            try {
+                reportProgress(n);
+            } catch (SortCancelledException e) {
+                // Проход завершён целиком, но результат может быть в буфере - возвращаем его в массив
+                if (src != array) {
+                    System.arraycopy(src, 0, array, lo, n);
                 }
+                throw e;
             }
         }
-        return array;
+
+        // Нечётное число проходов - результат остался в буфере
+        if (src != array) {
+            System.arraycopy(src, 0, array, lo, n);
+        }
+    }
+
+    /**
+     * Классический TimSort для array[lo...hi): находит естественные серии,
+     * разворачивает убывающие, добивает короткие до minRun бинарными вставками
+     * и сливает серии, поддерживая инварианты стека серий.
+     * Уже отсортированный или обратно отсортированный массив обрабатывается за n - 1 сравнение.
+     */
+    private void sortNaturalRuns(Bus[] array, int lo, int hi) {
+        int remaining = hi - lo;
+        if (remaining < MIN_MERGE) {
+            int initRunLen = countRunAndMakeAscending(array, lo, hi);
+            binarySort(array, lo, hi, lo + initRunLen);
+            return;
+        }
+
+        initRunStack(remaining);
+        ensureCapacity(remaining >>> 1); // меньшая из сливаемых частей не длиннее половины
+        int minRun = minRunLength(remaining);
+        do {
+            int runLength = countRunAndMakeAscending(array, lo, hi);
+
+            // Короткую серию добиваем до minRun
+            if (runLength < minRun) {
+                int force = Math.min(remaining, minRun);
+                binarySort(array, lo, lo + force, lo + runLength);
+                runLength = force;
+            }
+
+            pushRun(lo, runLength);
+            reportProgress(runLength);
+            mergeCollapse(array);
+
+            lo += runLength;
+            remaining -= runLength;
+        } while (remaining != 0);
+
+        mergeForceCollapse(array);
+    }
+
+    /**
+     * Длина серии, начинающейся с lo. Строго убывающая серия разворачивается
+     * (строгость нужна, чтобы не нарушить стабильность).
+     */
+    private int countRunAndMakeAscending(Bus[] array, int lo, int hi) {
+        int runHi = lo + 1;
+        if (runHi == hi) {
+            return 1;
+        }
+
+        if (compare(array[runHi++], array[lo]) < 0) { // убывающая
+            while (runHi < hi && compare(array[runHi], array[runHi - 1]) < 0) {
+                runHi++;
+            }
+            reverseRange(array, lo, runHi);
+        } else {                                                  // неубывающая
+            while (runHi < hi && compare(array[runHi], array[runHi - 1]) >= 0) {
+                runHi++;
+            }
+        }
+        return runHi - lo;
+    }
+
+    private static void reverseRange(Bus[] array, int lo, int hi) {
+        hi--;
+        while (lo < hi) {
+            Bus t = array[lo];
+            array[lo++] = array[hi];
+            array[hi--] = t;
+        }
+    }
+
+    /**
+     * Бинарные вставки: array[lo...start) уже отсортирован, вставляем array[start...hi)
+     */
+    private void binarySort(Bus[] array, int lo, int hi, int start) {
+        if (smallKernel != null && hi - lo <= MileageInsertionKernel.MAX_LENGTH) {
+            comparisons += smallKernel.sort(array, lo, hi, start);
+            return;
+        }
+        if (start == lo) {
+            start++;
+        }
+        for (; start < hi; start++) {
+            Bus pivot = array[start];
+
+            // Ищем самую правую позицию, куда можно вставить pivot (стабильность)
+            int left = lo;
+            int right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (compare(pivot, array[mid]) < 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+
+            System.arraycopy(array, left, array, left + 1, start - left);
+            array[left] = pivot;
+        }
+    }
+
+    /**
+     * Минимальная длина серии: число в диапазоне [MIN_MERGE/2, MIN_MERGE],
+     * при котором n / minRun равно степени двойки или чуть меньше её
+     */
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= (n & 1);
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    private void initRunStack(int length) {
+        int stackLen = (length < 120 ? 5 :
+                        length < 1542 ? 10 :
+                        length < 119151 ? 24 : 49);
+        if (runBase == null || runBase.length < stackLen) {
+            runBase = new int[stackLen];
+            runLen = new int[stackLen];
+        }
+        stackSize = 0;
+    }
+
+    private void pushRun(int base, int length) {
+        runBase[stackSize] = base;
+        runLen[stackSize] = length;
+        stackSize++;
+    }
+
+    /**
+     * Сливает серии на вершине стека, пока не выполнены инварианты:
+     * runLen[i - 2] > runLen[i - 1] + runLen[i] и runLen[i - 1] > runLen[i]
+     */
+    private void mergeCollapse(Bus[] array) {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                    || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                if (runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+            } else if (n < 0 || runLen[n] > runLen[n + 1]) {
+                break;
+            }
+            mergeAt(array, n);
+        }
+    }
+
+    private void mergeForceCollapse(Bus[] array) {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                n--;
+            }
+            mergeAt(array, n);
+        }
+    }
+
+    /**
+     * Сливает серии i и i + 1 стека
+     */
+    private void mergeAt(Bus[] array, int i) {
+        int base1 = runBase[i];
+        int len1 = runLen[i];
+        int len2 = runLen[i + 1];
+
+        runLen[i] = len1 + len2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLen[i + 1] = runLen[i + 2];
+        }
+        stackSize--;
+
+        mergeRuns(array, base1, base1 + len1 - 1, base1 + len1 + len2 - 1);
+        reportProgress(len1 + len2);
+    }
+
+    private void reportProgress(long work) {
+        workDone += work;
+        if (control != null) {
+            control.checkpoint(workDone, workTotal);
+        }
     }
 
     /**
      * Сортировка вставками для маленьких подмассивов
      */
     public void insertionSort(Bus[] array, int left, int right) {
+        if (smallKernel != null && right - left < MileageInsertionKernel.MAX_LENGTH) {
+            if (right > left) {
+                comparisons += smallKernel.sort(array, left, right + 1, left + 1);
+            }
+            return;
+        }
         for (int i = left + 1; i <= right; i++) {
             Bus current = array[i];
             int j = i - 1;
 
             // Сдвигаем элементы больше текущего вправо
-            while (j >= left && comparator.compare(array[j], current) > 0) {
+            while (j >= left && compare(array[j], current) > 0) {
                 array[j + 1] = array[j];
                 j--;
             }
@@ -65,48 +394,440 @@ public class TimSortStrategy implements SortStrategy {
     /**
      * Слияние двух отсортированных подмассивов
      * array[left...mid] и array[mid+1...right]
+     * Во временный массив копируется только меньшая из частей. Если одна из частей
+     * много раз подряд "выигрывает", слияние переходит в режим галопа: экспоненциальным
+     * поиском находит, сколько элементов можно перенести одним блоком.
      */
     public void merge(Bus[] array, int left, int mid, int right) {
-        // Длины подмассивов
-        int len1 = mid - left + 1;
-        int len2 = right - mid;
-
-        // Создаем временные массивы
-        Bus[] leftArray = new Bus[len1];
-        Bus[] rightArray = new Bus[len2];
-
-        // Копируем данные во временные массивы
-        System.arraycopy(array, left, leftArray, 0, len1);
-        System.arraycopy(array, mid + 1, rightArray, 0, len2);
-
-        int i = 0, j = 0; // Индексы для временных массивов
-        int k = left;     // Индекс для основного массива
-
-        // Сливаем временные массивы обратно в array[left...right]
-        while (i < len1 && j < len2) {
-            if (comparator.compare(leftArray[i], rightArray[j]) <= 0) {
-                array[k] = leftArray[i];
-                i++;
+        try {
+            mergeRuns(array, left, mid, right);
+        } finally {
+            releaseBuffer();
+        }
+    }
+
+    /**
+     * Тело merge; внутри сортировки буфер очищается один раз в конце, а не после каждого слияния
+     */
+    private void mergeRuns(Bus[] array, int left, int mid, int right) {
+        if (left > mid || mid >= right) {
+            return; // одна из частей пуста
+        }
+        int base2 = mid + 1;
+
+        // Элементы левой части, меньшие либо равные началу правой, уже на своих местах
+        int k = gallopRight(array[base2], array, left, base2 - left, 0);
+        int base1 = left + k;
+        int len1 = base2 - base1;
+        if (len1 == 0) {
+            return;
+        }
+
+        // Элементы правой части, не меньшие конца левой, тоже уже на своих местах
+        int len2 = gallopLeft(array[mid], array, base2, right - mid, right - mid - 1);
+        if (len2 == 0) {
+            return;
+        }
+
+        if (len1 <= len2) {
+            mergeLo(array, base1, len1, base2, len2);
+        } else {
+            mergeHi(array, base1, len1, base2, len2);
+        }
+    }
+
+    /**
+     * Слияние слева направо, левая часть (len1 <= len2) копируется во временный массив
+     */
+    private void mergeLo(Bus[] array, int base1, int len1, int base2, int len2) {
+        Bus[] tmp = ensureCapacity(len1);
+        System.arraycopy(array, base1, tmp, 0, len1);
+
+        int cursor1 = 0;     // индекс во временном массиве
+        int cursor2 = base2; // индекс в правой части
+        int dest = base1;    // куда пишем результат
+
+        array[dest++] = array[cursor2++];
+        if (--len2 == 0) {
+            System.arraycopy(tmp, cursor1, array, dest, len1);
+            return;
+        }
+        if (len1 == 1) {
+            System.arraycopy(array, cursor2, array, dest, len2);
+            array[dest + len2] = tmp[cursor1];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0; // сколько раз подряд выиграла левая часть
+            int count2 = 0; // сколько раз подряд выиграла правая часть
+
+            // Обычное поэлементное слияние, пока ни одна из частей не выигрывает слишком часто
+            do {
+                if (compare(array[cursor2], tmp[cursor1]) < 0) {
+                    array[dest++] = array[cursor2++];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+                } else {
+                    array[dest++] = tmp[cursor1++];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            // Режим галопа: переносим блоки целиком, пока это выгодно
+            do {
+                count1 = gallopRight(array[cursor2], tmp, cursor1, len1, 0);
+                if (count1 != 0) {
+                    System.arraycopy(tmp, cursor1, array, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    len1 -= count1;
+                    if (len1 <= 1) {
+                        break outer;
+                    }
+                }
+                array[dest++] = array[cursor2++];
+                if (--len2 == 0) {
+                    break outer;
+                }
+
+                count2 = gallopLeft(tmp[cursor1], array, cursor2, len2, 0);
+                if (count2 != 0) {
+                    System.arraycopy(array, cursor2, array, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    len2 -= count2;
+                    if (len2 == 0) {
+                        break outer;
+                    }
+                }
+                array[dest++] = tmp[cursor1++];
+                if (--len1 == 1) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2; // штраф за выход из режима галопа
+        }
+        this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+        if (len1 == 1) {
+            System.arraycopy(array, cursor2, array, dest, len2);
+            array[dest + len2] = tmp[cursor1]; // последний элемент левой части идёт в конец
+        } else if (len1 == 0) {
+            throw new IllegalArgumentException("Comparison method violates its general contract!");
+        } else {
+            System.arraycopy(tmp, cursor1, array, dest, len1);
+        }
+    }
+
+    /**
+     * Слияние справа налево, правая часть (len2 < len1) копируется во временный массив
+     */
+    private void mergeHi(Bus[] array, int base1, int len1, int base2, int len2) {
+        Bus[] tmp = ensureCapacity(len2);
+        System.arraycopy(array, base2, tmp, 0, len2);
+
+        int cursor1 = base1 + len1 - 1; // последний элемент левой части
+        int cursor2 = len2 - 1;         // последний элемент во временном массиве
+        int dest = base2 + len2 - 1;    // куда пишем результат
+
+        array[dest--] = array[cursor1--];
+        if (--len1 == 0) {
+            System.arraycopy(tmp, 0, array, dest - (len2 - 1), len2);
+            return;
+        }
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(array, cursor1 + 1, array, dest + 1, len1);
+            array[dest] = tmp[cursor2];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0; // сколько раз подряд выиграла левая часть
+            int count2 = 0; // сколько раз подряд выиграла правая часть
+
+            do {
+                if (compare(tmp[cursor2], array[cursor1]) < 0) {
+                    array[dest--] = array[cursor1--];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                } else {
+                    array[dest--] = tmp[cursor2--];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            do {
+                count1 = len1 - gallopRight(tmp[cursor2], array, base1, len1, len1 - 1);
+                if (count1 != 0) {
+                    dest -= count1;
+                    cursor1 -= count1;
+                    len1 -= count1;
+                    System.arraycopy(array, cursor1 + 1, array, dest + 1, count1);
+                    if (len1 == 0) {
+                        break outer;
+                    }
+                }
+                array[dest--] = tmp[cursor2--];
+                if (--len2 == 1) {
+                    break outer;
+                }
+
+                count2 = len2 - gallopLeft(array[cursor1], tmp, 0, len2, len2 - 1);
+                if (count2 != 0) {
+                    dest -= count2;
+                    cursor2 -= count2;
+                    len2 -= count2;
+                    System.arraycopy(tmp, cursor2 + 1, array, dest + 1, count2);
+                    if (len2 <= 1) {
+                        break outer;
+                    }
+                }
+                array[dest--] = array[cursor1--];
+                if (--len1 == 0) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2; // штраф за выход из режима галопа
+        }
+        this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(array, cursor1 + 1, array, dest + 1, len1);
+            array[dest] = tmp[cursor2]; // первый элемент правой части идёт в начало
+        } else if (len2 == 0) {
+            throw new IllegalArgumentException("Comparison method violates its general contract!");
+        } else {
+            System.arraycopy(tmp, 0, array, dest - (len2 - 1), len2);
+        }
+    }
+
+    /**
+     * Слияние src[lo1...hi1) и src[lo2...hi2) в dst начиная с позиции dest.
+     * dst не должен пересекаться с исходными диапазонами, поэтому копировать ничего
+     * не нужно. Галоп работает так же, как в mergeLo.
+     */
+    void mergeInto(Bus[] src, int lo1, int hi1, int lo2, int hi2, Bus[] dst, int dest) {
+        int minGallop = this.minGallop;
+        while (lo1 < hi1 && lo2 < hi2) {
+            int count1 = 0;
+            int count2 = 0;
+            do {
+                if (compare(src[lo2], src[lo1]) < 0) {
+                    dst[dest++] = src[lo2++];
+                    count2++;
+                    count1 = 0;
+                } else {
+                    dst[dest++] = src[lo1++];
+                    count1++;
+                    count2 = 0;
+                }
+            } while (lo1 < hi1 && lo2 < hi2 && (count1 | count2) < minGallop);
+
+            while (lo1 < hi1 && lo2 < hi2) {
+                count1 = gallopRight(src[lo2], src, lo1, hi1 - lo1, 0);
+                System.arraycopy(src, lo1, dst, dest, count1);
+                dest += count1;
+                lo1 += count1;
+                if (lo1 == hi1) {
+                    break;
+                }
+
+                count2 = gallopLeft(src[lo1], src, lo2, hi2 - lo2, 0);
+                System.arraycopy(src, lo2, dst, dest, count2);
+                dest += count2;
+                lo2 += count2;
+
+                if (count1 < MIN_GALLOP && count2 < MIN_GALLOP) {
+                    minGallop += 2; // штраф за выход из режима галопа
+                    break;
+                }
+                if (minGallop > 1) {
+                    minGallop--;
+                }
+            }
+        }
+        this.minGallop = minGallop;
+
+        System.arraycopy(src, lo1, dst, dest, hi1 - lo1);
+        System.arraycopy(src, lo2, dst, dest + (hi1 - lo1), hi2 - lo2);
+    }
+
+    /**
+     * Возвращает буфер слияния не меньше minCapacity, выделяя новый только при нехватке места
+     */
+    private Bus[] ensureCapacity(int minCapacity) {
+        if (tmp == null || tmp.length < minCapacity) {
+            tmp = new Bus[minCapacity];
+        }
+        tmpUsed = Math.max(tmpUsed, minCapacity);
+        return tmp;
+    }
+
+    /**
+     * Убирает из буфера ссылки на автобусы; сам буфер остаётся для следующей сортировки
+     */
+    private void releaseBuffer() {
+        if (tmpUsed > 0) {
+            Arrays.fill(tmp, 0, tmpUsed, null);
+            tmpUsed = 0;
+        }
+    }
+
+    /**
+     * Находит самую левую позицию в отсортированном диапазоне a[base...base+len),
+     * куда можно вставить key. Поиск начинается с позиции base + hint и идёт
+     * экспоненциальными шагами, поэтому стоит O(log d), где d - расстояние до ответа.
+     *
+     * @return k такое, что a[base + k - 1] < key <= a[base + k]
+     */
+    private int gallopLeft(Bus key, Bus[] a, int base, int len, int hint) {
+        int lastOfs = 0;
+        int ofs = 1;
+        if (compare(key, a[base + hint]) > 0) {
+            // Галоп вправо: a[base+hint+lastOfs] < key <= a[base+hint+ofs]
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && compare(key, a[base + hint + ofs]) > 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) { // переполнение
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            lastOfs += hint;
+            ofs += hint;
+        } else {
+            // Галоп влево: a[base+hint-ofs] < key <= a[base+hint-lastOfs]
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && compare(key, a[base + hint - ofs]) <= 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            int tmp = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - tmp;
+        }
+
+        // Бинарный поиск внутри найденного интервала (lastOfs, ofs]
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (compare(key, a[base + m]) > 0) {
+                lastOfs = m + 1;
             } else {
-                array[k] = rightArray[j];
-                j++;
+                ofs = m;
             }
-            k++;
         }
+        return ofs;
+    }
 
-        // Копируем оставшиеся элементы leftArray
-        while (i < len1) {
-            array[k] = leftArray[i];
-            i++;
-            k++;
+    /**
+     * Как gallopLeft, но возвращает самую правую позицию: при равенстве key
+     * встаёт после равных элементов, что сохраняет стабильность.
+     *
+     * @return k такое, что a[base + k - 1] <= key < a[base + k]
+     */
+    private int gallopRight(Bus key, Bus[] a, int base, int len, int hint) {
+        int ofs = 1;
+        int lastOfs = 0;
+        if (compare(key, a[base + hint]) < 0) {
+            // Галоп влево: key < a[base+hint-lastOfs], a[base+hint-ofs] <= key
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && compare(key, a[base + hint - ofs]) < 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            int tmp = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - tmp;
+        } else {
+            // Галоп вправо: a[base+hint+lastOfs] <= key < a[base+hint+ofs]
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && compare(key, a[base + hint + ofs]) >= 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            lastOfs += hint;
+            ofs += hint;
         }
 
-        // Копируем оставшиеся элементы rightArray
-        while (j < len2) {
-            array[k] = rightArray[j];
-            j++;
-            k++;
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (compare(key, a[base + m]) < 0) {
+                ofs = m;
+            } else {
+                lastOfs = m + 1;
+            }
         }
+        return ofs;
+    }
+
+    /**
+     * Все сравнения идут через этот метод, чтобы считать вызовы компаратора
+     */
+    private int compare(Bus bus1, Bus bus2) {
+        comparisons++;
+        return comparator.compare(bus1, bus2);
+    }
+
+    /**
+     * Число вызовов компаратора с начала последней сортировки
+     * (прямые вызовы merge и insertionSort тоже учитываются)
+     */
+    public long getComparisonCount() {
+        return comparisons;
     }
 
     @Override
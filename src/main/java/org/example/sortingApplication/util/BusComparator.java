@@ -2,7 +2,9 @@ package org.example.sortingApplication.util;
 
 import org.example.sortingApplication.domain.Bus;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Scanner;
 
 public class BusComparator implements Comparator<Bus> {
@@ -10,6 +12,10 @@ public class BusComparator implements Comparator<Bus> {
     private String secondaryField;
     private String tertiaryField;
     private boolean caseSensitive; // учитывать ли регистр
+    // Названия полей в нижнем регистре: приводятся один раз, а не при каждом сравнении
+    private final String primaryKey;
+    private final String secondaryKey;
+    private final String tertiaryKey;
 
     public BusComparator(String primaryField, String secondaryField, String tertiaryField) {
         this(primaryField, secondaryField, tertiaryField, true);
@@ -20,21 +26,60 @@ public class BusComparator implements Comparator<Bus> {
         this.secondaryField = secondaryField;
         this.tertiaryField = tertiaryField;
         this.caseSensitive = caseSensitive;
+        this.primaryKey = toKey(primaryField);
+        this.secondaryKey = toKey(secondaryField);
+        this.tertiaryKey = toKey(tertiaryField);
+    }
+
+    private static String toKey(String field) {
+        return field == null ? null : field.toLowerCase();
+    }
+
+    public String getPrimaryField() { return primaryField; }
+    public String getSecondaryField() { return secondaryField; }
+    public String getTertiaryField() { return tertiaryField; }
+    public boolean isCaseSensitive() { return caseSensitive; }
+
+    /**
+     * Поля в порядке сравнения, в нижнем регистре, без пустых (null) и повторяющихся:
+     * повторное поле ничего не меняет в порядке
+     */
+    public List<String> getFieldOrder() {
+        List<String> fields = new ArrayList<>();
+        for (String field : new String[]{primaryField, secondaryField, tertiaryField}) {
+            if (field != null && !fields.contains(field.toLowerCase())) {
+                fields.add(field.toLowerCase());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Символ в том виде, в котором его сравнивает String.compareToIgnoreCase
+     */
+    public static char foldCase(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
     }
 
     @Override
     public int compare(Bus bus1, Bus bus2) {
-        int primaryComparison = compareByField(bus1, bus2, primaryField);
+        int primaryComparison = compareByField(bus1, bus2, primaryKey);
         if (primaryComparison != 0) return primaryComparison;
 
-        int secondaryComparison = compareByField(bus1, bus2, secondaryField);
+        int secondaryComparison = compareByField(bus1, bus2, secondaryKey);
         if (secondaryComparison != 0) return secondaryComparison;
 
-        return compareByField(bus1, bus2, tertiaryField);
+        return compareByField(bus1, bus2, tertiaryKey);
     }
 
     private int compareByField(Bus bus1, Bus bus2, String field) {
-        switch (field.toLowerCase()) {
+        if (field == null) {
+            return 0; // поле не задано (InitComparator оставляет лишние поля пустыми)
+        }
+        switch (field) {
             case "номер":
                 return compareStrings(bus1.getBusNumber(), bus2.getBusNumber());
             case "модель":
@@ -0,0 +1,46 @@
+package org.example.sortingApplication.util;
+
+/**
+ * Циклы по столбцу пробегов (int[]), а не по объектам Bus: минимум и максимум (поразрядная
+ * сортировка), маска четности (сортировка только четных), гистограмма разряда.
+ * Есть две реализации: скалярная и на jdk.incubator.vector (SIMD). Векторная собирается
+ * только в профиле Maven vector (mvn -Pvector) и работает, если JVM запущена с
+ * --add-modules jdk.incubator.vector; иначе get() возвращает скалярную.
+ * Отключить векторную можно свойством -Dsorting.vector=false.
+ */
+public interface MileageKernels {
+
+    /**
+     * Лучшая доступная реализация
+     */
+    static MileageKernels get() {
+        return MileageKernelsLoader.INSTANCE;
+    }
+
+    /**
+     * Скалярная реализация - для сравнения и как запасной вариант
+     */
+    static MileageKernels scalar() {
+        return MileageKernelsLoader.SCALAR;
+    }
+
+    String getName();
+
+    /**
+     * {минимум, максимум} среди values[0...n), n >= 1
+     */
+    int[] minMax(int[] values, int n);
+
+    /**
+     * Маска четности для values[from...to): бит i слова words[i / 64] установлен, если
+     * values[i] четное. from кратно 64; записываются все слова, покрывающие [from, to),
+     * биты за to нулевые. Подходит как MaskedSortStrategy.ColumnMask.
+     */
+    void evenMask(int[] values, int from, int to, long[] words);
+
+    /**
+     * Гистограмма разряда: counts[((values[i] - base) >>> shift) & mask]++ для i из [0, n).
+     * Счётчики не обнуляются.
+     */
+    void digitHistogram(int[] values, int n, int base, int shift, int mask, int[] counts);
+}
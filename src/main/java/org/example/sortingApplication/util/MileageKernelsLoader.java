@@ -0,0 +1,26 @@
+package org.example.sortingApplication.util;
+
+/**
+ * Выбирает реализацию MileageKernels один раз при первом обращении
+ */
+final class MileageKernelsLoader {
+    private static final String VECTOR_CLASS = "org.example.sortingApplication.util.VectorMileageKernels";
+
+    static final MileageKernels SCALAR = new ScalarMileageKernels();
+    static final MileageKernels INSTANCE = load();
+
+    private MileageKernelsLoader() {
+    }
+
+    private static MileageKernels load() {
+        if (!Boolean.parseBoolean(System.getProperty("sorting.vector", "true"))) {
+            return SCALAR;
+        }
+        try {
+            return (MileageKernels) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Класс не собран (нет профиля vector) или модуль jdk.incubator.vector не подключён
+            return SCALAR;
+        }
+    }
+}
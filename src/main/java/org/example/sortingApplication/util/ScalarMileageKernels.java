@@ -0,0 +1,42 @@
+package org.example.sortingApplication.util;
+
+/**
+ * По одному значению за шаг; работает на любой JVM
+ */
+final class ScalarMileageKernels implements MileageKernels {
+
+    @Override
+    public String getName() {
+        return "скалярные";
+    }
+
+    @Override
+    public int[] minMax(int[] values, int n) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int value = values[i];
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+        return new int[]{min, max};
+    }
+
+    @Override
+    public void evenMask(int[] values, int from, int to, long[] words) {
+        for (int w = from >>> 6; w << 6 < to; w++) {
+            long word = 0;
+            for (int i = w << 6, end = Math.min(i + 64, to); i < end; i++) {
+                word |= (long) (~values[i] & 1) << i;
+            }
+            words[w] = word;
+        }
+    }
+
+    @Override
+    public void digitHistogram(int[] values, int n, int base, int shift, int mask, int[] counts) {
+        for (int i = 0; i < n; i++) {
+            counts[((values[i] - base) >>> shift) & mask]++;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.sortingApplication.util;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Превращает автобус в один ключ из байтов, порядок которых (беззнаковое
+ * лексикографическое сравнение) совпадает с порядком BusComparator.
+ * Поля кодируются по очереди в порядке getFieldOrder():
+ * - строка: каждый символ (без учета регистра - после свертки регистра) кодируется
+ *   как число c + 1 в формате UTF-8, так что нулевой байт внутри строки не встречается,
+ *   а в конце ставится 0x00 - более короткая строка оказывается меньше своих продолжений;
+ * - пробег: 4 байта big-endian с инвертированным знаковым битом.
+ * prefix() возвращает первые 8 байтов того же ключа в одном long, не строя ключ целиком.
+ */
+public class SortKeyEncoder {
+    private static final int NUMBER = 0;
+    private static final int MODEL = 1;
+    private static final int MILEAGE = 2;
+
+    private final int[] fields;
+    private final boolean caseSensitive;
+
+    public SortKeyEncoder(BusComparator comparator) {
+        List<String> order = comparator.getFieldOrder();
+        this.fields = new int[order.size()];
+        for (int i = 0; i < fields.length; i++) {
+            switch (order.get(i)) {
+                case "номер":
+                    fields[i] = NUMBER;
+                    break;
+                case "модель":
+                    fields[i] = MODEL;
+                    break;
+                case "пробег":
+                    fields[i] = MILEAGE;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown field: " + order.get(i));
+            }
+        }
+        this.caseSensitive = comparator.isCaseSensitive();
+    }
+
+    public byte[] encode(Bus bus) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        for (int field : fields) {
+            writeField(out::write, bus, field, Integer.MAX_VALUE);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Первые 8 байтов ключа encode(bus), big-endian; короткий ключ дополняется нулями.
+     * Беззнаковое сравнение префиксов не противоречит сравнению ключей: если префиксы
+     * различаются, то ключи различаются так же, а равные префиксы ничего не говорят.
+     */
+    public long prefix(Bus bus) {
+        PrefixBuilder prefix = new PrefixBuilder();
+        for (int i = 0; i < fields.length && prefix.bytes < Long.BYTES; i++) {
+            writeField(prefix, bus, fields[i], Long.BYTES); // каждый символ - хотя бы один байт
+        }
+        return prefix.get();
+    }
+
+    private void writeField(IntConsumer out, Bus bus, int field, int maxChars) {
+        switch (field) {
+            case NUMBER:
+                writeString(out, bus.getBusNumber(), maxChars);
+                break;
+            case MODEL:
+                writeString(out, bus.getModel(), maxChars);
+                break;
+            default:
+                writeInt(out, bus.getMileage());
+        }
+    }
+
+    private void writeString(IntConsumer out, String value, int maxChars) {
+        int length = Math.min(value.length(), maxChars);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            int v = (caseSensitive ? c : BusComparator.foldCase(c)) + 1; // 1...0x10000
+            if (v < 0x80) {
+                out.accept(v);
+            } else if (v < 0x800) {
+                out.accept(0xC0 | (v >>> 6));
+                out.accept(0x80 | (v & 0x3F));
+            } else if (v < 0x10000) {
+                out.accept(0xE0 | (v >>> 12));
+                out.accept(0x80 | ((v >>> 6) & 0x3F));
+                out.accept(0x80 | (v & 0x3F));
+            } else {
+                out.accept(0xF0 | (v >>> 18));
+                out.accept(0x80 | ((v >>> 12) & 0x3F));
+                out.accept(0x80 | ((v >>> 6) & 0x3F));
+                out.accept(0x80 | (v & 0x3F));
+            }
+        }
+        out.accept(0); // конец строки; у обрезанной строки он уже за пределами префикса
+    }
+
+    private static void writeInt(IntConsumer out, int value) {
+        int v = value ^ Integer.MIN_VALUE; // отрицательные числа становятся меньше положительных
+        out.accept((v >>> 24) & 0xFF);
+        out.accept((v >>> 16) & 0xFF);
+        out.accept((v >>> 8) & 0xFF);
+        out.accept(v & 0xFF);
+    }
+
+    /**
+     * Накапливает первые 8 байтов ключа, остальные отбрасывает
+     */
+    private static final class PrefixBuilder implements IntConsumer {
+        long value;
+        int bytes;
+
+        @Override
+        public void accept(int b) {
+            if (bytes < Long.BYTES) {
+                value = (value << 8) | b;
+                bytes++;
+            }
+        }
+
+        long get() {
+            return bytes == 0 ? 0 : value << (8 * (Long.BYTES - bytes));
+        }
+    }
+}
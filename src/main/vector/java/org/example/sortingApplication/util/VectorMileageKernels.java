@@ -0,0 +1,86 @@
+package org.example.sortingApplication.util;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Реализация на jdk.incubator.vector: за шаг обрабатывается SPECIES.length() значений
+ * (8 для AVX2, 16 для AVX-512). Хвост короче вектора обрабатывается скалярно.
+ * Собирается только в профиле vector; загружается через MileageKernelsLoader.
+ */
+final class VectorMileageKernels implements MileageKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int DIGIT_BLOCK = 1024; // разряды считаются векторно блоками, счётчики - скалярно
+
+    @Override
+    public String getName() {
+        return "векторные (" + SPECIES.length() + " x int)";
+    }
+
+    @Override
+    public int[] minMax(int[] values, int n) {
+        int bound = SPECIES.loopBound(n);
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        if (bound > 0) {
+            IntVector vmin = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+            IntVector vmax = IntVector.broadcast(SPECIES, Integer.MIN_VALUE);
+            for (int i = 0; i < bound; i += SPECIES.length()) {
+                IntVector v = IntVector.fromArray(SPECIES, values, i);
+                vmin = vmin.min(v);
+                vmax = vmax.max(v);
+            }
+            min = vmin.reduceLanes(VectorOperators.MIN);
+            max = vmax.reduceLanes(VectorOperators.MAX);
+        }
+        for (int i = bound; i < n; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        return new int[]{min, max};
+    }
+
+    @Override
+    public void evenMask(int[] values, int from, int to, long[] words) {
+        int lanes = SPECIES.length(); // 4, 8 или 16 - делит 64
+        int fullWords = to >>> 6;
+        for (int w = from >>> 6; w < fullWords; w++) {
+            long word = 0;
+            for (int k = 0; k < 64; k += lanes) {
+                IntVector v = IntVector.fromArray(SPECIES, values, (w << 6) + k);
+                word |= v.and(1).compare(VectorOperators.EQ, 0).toLong() << k;
+            }
+            words[w] = word;
+        }
+        if ((to & 63) != 0) {
+            long word = 0;
+            for (int i = fullWords << 6; i < to; i++) {
+                word |= (long) (~values[i] & 1) << i;
+            }
+            words[fullWords] = word;
+        }
+    }
+
+    @Override
+    public void digitHistogram(int[] values, int n, int base, int shift, int mask, int[] counts) {
+        int[] digits = new int[DIGIT_BLOCK];
+        for (int from = 0; from < n; from += DIGIT_BLOCK) {
+            int length = Math.min(DIGIT_BLOCK, n - from);
+            int bound = SPECIES.loopBound(length);
+            for (int i = 0; i < bound; i += SPECIES.length()) {
+                IntVector.fromArray(SPECIES, values, from + i)
+                        .sub(base)
+                        .lanewise(VectorOperators.LSHR, shift)
+                        .and(mask)
+                        .intoArray(digits, i);
+            }
+            for (int i = bound; i < length; i++) {
+                digits[i] = ((values[from + i] - base) >>> shift) & mask;
+            }
+            for (int i = 0; i < length; i++) {
+                counts[digits[i]]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.sortingApplication.Service;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.service.ExternalSortService;
+import org.example.sortingApplication.service.InputService;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSortServiceTest {
+    @TempDir
+    Path tempDir;
+
+    private final InputService inputService = new InputService();
+
+    private List<Bus> writeRandomFleet(Path file, int size, int maxMileage, long seed) throws IOException {
+        String[] models = {"Mercedes", "Volvo", "MAN", "Scania", "Iveco"};
+        Random random = new Random(seed);
+        List<Bus> buses = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Bus bus = new Bus("AB" + (100 + random.nextInt(900)), models[random.nextInt(models.length)],
+                    random.nextInt(maxMileage));
+            buses.add(bus);
+            lines.add(bus.getBusNumber() + "," + bus.getModel() + "," + bus.getMileage());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return buses;
+    }
+
+    private List<Bus> readBuses(Path file) throws IOException {
+        List<Bus> buses = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            buses.add(inputService.parseBus(line));
+        }
+        return buses;
+    }
+
+    @Test
+    void testSort_ManyRunsMatchesInMemoryStableSort() throws IOException {
+        Path input = tempDir.resolve("fleet.txt");
+        Path output = tempDir.resolve("sorted.txt");
+        List<Bus> buses = writeRandomFleet(input, 20_000, 100, 1);
+        // Модель и пробег не уникальны, поэтому по порядку номеров видно, сохранена ли стабильность
+        Comparator<Bus> comparator = new BusComparator("модель", "пробег", "модель");
+
+        // Бюджет на ~100 автобусов - много серий и промежуточное слияние
+        ExternalSortService service = new ExternalSortService(100 * 160, true);
+        assertEquals(buses.size(), service.sort(input.toString(), output.toString(), comparator));
+        assertTrue(service.getLastRunCount() > 64, "runs: " + service.getLastRunCount());
+
+        buses.sort(comparator);
+        List<Bus> sorted = readBuses(output);
+        assertEquals(buses.size(), sorted.size());
+        for (int i = 0; i < buses.size(); i++) {
+            assertEquals(buses.get(i).getBusNumber(), sorted.get(i).getBusNumber(), "index " + i);
+            assertEquals(buses.get(i), sorted.get(i), "index " + i);
+        }
+    }
+
+    @Test
+    void testSort_FailedIntermediateMergeLeavesNoRunFiles() throws IOException {
+        Path input = tempDir.resolve("fleet.txt");
+        writeRandomFleet(input, 20_000, 100, 6);
+        ExternalSortService service = new ExternalSortService(100 * 160, false);
+        Comparator<Bus> byModel = new BusComparator("модель", "пробег", "номер");
+        int[] calls = {0};
+        // Серии уже построены (getLastRunCount > 0) - ломаемся посреди промежуточного слияния
+        Comparator<Bus> failing = (a, b) -> {
+            if (service.getLastRunCount() > 0 && ++calls[0] > 1000) {
+                throw new IllegalStateException("сбой сравнения");
+            }
+            return byModel.compare(a, b);
+        };
+
+        long before = countRunFiles();
+        assertThrows(IllegalStateException.class,
+                () -> service.sort(input.toString(), tempDir.resolve("sorted.txt").toString(), failing));
+        assertTrue(service.getLastRunCount() > 64, "runs: " + service.getLastRunCount());
+        assertEquals(before, countRunFiles());
+    }
+
+    private static long countRunFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("bus-run-")).count();
+        }
+    }
+
+    @Test
+    void testSort_ReplacementSelectionMakesLongRuns() throws IOException {
+        Path input = tempDir.resolve("fleet.txt");
+        Path output = tempDir.resolve("sorted.txt");
+        writeRandomFleet(input, 10_000, 1_000_000, 2);
+
+        // Куча на 1000 автобусов: на случайных данных серии примерно вдвое длиннее кучи
+        ExternalSortService service = new ExternalSortService(1000 * 160, false);
+        service.sort(input.toString(), output.toString(), new BusComparator("пробег", "модель", "номер"));
+        assertTrue(service.getLastRunCount() <= 7, "runs: " + service.getLastRunCount());
+    }
+
+    @Test
+    void testSort_SkipsInvalidLinesAndEmptyInput() throws IOException {
+        Path input = tempDir.resolve("fleet.txt");
+        Path output = tempDir.resolve("sorted.txt");
+        Files.write(input, List.of("AB200,Volvo,500", "", "broken line", "AB100,MAN,100"), StandardCharsets.UTF_8);
+
+        ExternalSortService service = new ExternalSortService(1 << 20, true);
+        assertEquals(2, service.sort(input.toString(), output.toString(), new BusComparator("пробег", "модель", "номер")));
+        assertEquals(List.of("AB100,MAN,100", "AB200,Volvo,500"), Files.readAllLines(output, StandardCharsets.UTF_8));
+
+        Path empty = tempDir.resolve("empty.txt");
+        Files.createFile(empty);
+        assertEquals(0, service.sort(empty.toString(), output.toString(), new BusComparator("пробег", "модель", "номер")));
+        assertTrue(Files.readAllLines(output).isEmpty());
+    }
+
+    @Test
+    void testIsTooLargeForHeap() throws IOException {
+        Path input = tempDir.resolve("fleet.txt");
+        writeRandomFleet(input, 100, 1000, 3);
+        assertFalse(ExternalSortService.isTooLargeForHeap(input.toString()));
+        assertTrue(ExternalSortService.estimateHeapSize(input.toString()) > Files.size(input));
+        assertEquals(0, ExternalSortService.estimateHeapSize(tempDir.resolve("missing.txt").toString()));
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSortService(0, false));
+    }
+}
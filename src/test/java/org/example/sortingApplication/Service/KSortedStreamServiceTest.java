@@ -0,0 +1,142 @@
+package org.example.sortingApplication.Service;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.service.KSortedStreamService;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KSortedStreamServiceTest {
+    @TempDir
+    Path tempDir;
+
+    private final Comparator<Bus> byMileage = Comparator.comparingInt(Bus::getMileage);
+
+    /**
+     * Отсортированные автобусы, перемешанные так, что каждый не дальше k позиций от своего места
+     */
+    private static List<Bus> nearlySorted(int size, int k, long seed) {
+        Random random = new Random(seed);
+        List<Bus> buses = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            buses.add(new Bus("AB" + i, "Volvo", i / 3)); // по три равных пробега
+        }
+        // Перемешиваем внутри непересекающихся окон длины k + 1
+        for (int from = 0; from < size; from += k + 1) {
+            Collections.shuffle(buses.subList(from, Math.min(from + k + 1, size)), random);
+        }
+        return buses;
+    }
+
+    private List<Bus> stableSorted(List<Bus> buses) {
+        List<Bus> sorted = new ArrayList<>(buses);
+        sorted.sort(byMileage);
+        return sorted;
+    }
+
+    private static List<Bus> drain(Iterator<Bus> buses) {
+        List<Bus> result = new ArrayList<>();
+        buses.forEachRemaining(result::add);
+        return result;
+    }
+
+    @Test
+    void testSort_NearlySortedInputMatchesStableSort() {
+        for (int k : new int[]{0, 1, 7, 100}) {
+            List<Bus> buses = k == 0 ? stableSorted(nearlySorted(1000, 5, 1)) : nearlySorted(5000, k, k);
+            List<Bus> sorted = drain(new KSortedStreamService(byMileage, k).sort(buses.iterator()));
+            assertEquals(stableSorted(buses), sorted, "k = " + k);
+        }
+    }
+
+    @Test
+    void testSort_IsLazyAndReadsOnlyKPlusOneAhead() {
+        List<Bus> buses = nearlySorted(1000, 10, 2);
+        int[] read = {0};
+        Iterator<Bus> counting = buses.stream().peek(bus -> read[0]++).iterator();
+
+        Iterator<Bus> sorted = new KSortedStreamService(byMileage, 10).sort(counting);
+        assertTrue(sorted.hasNext());
+        sorted.next();
+        assertEquals(11, read[0]);
+    }
+
+    @Test
+    void testSort_ThrowsWhenBoundViolated() {
+        List<Bus> buses = new ArrayList<>(stableSorted(nearlySorted(100, 1, 3)));
+        Collections.reverse(buses.subList(0, 10)); // первый автобус в 9 позициях от места
+
+        Iterator<Bus> sorted = new KSortedStreamService(byMileage, 3).sort(buses.iterator());
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> drain(sorted));
+        assertTrue(exception.getMessage().contains("K = 3"));
+        assertThrows(IllegalStateException.class, sorted::hasNext);
+    }
+
+    @Test
+    void testSortAll_FallsBackToFullSortOnViolation() {
+        List<Bus> buses = nearlySorted(3000, 5, 4);
+        Collections.swap(buses, 100, 2000);
+        KSortedStreamService service = new KSortedStreamService(byMileage, 5);
+
+        assertEquals(stableSorted(buses), service.sortAll(buses.iterator()));
+        assertTrue(service.isLastFallback());
+
+        List<Bus> valid = nearlySorted(3000, 5, 5);
+        assertEquals(stableSorted(valid), service.sortAll(valid.iterator()));
+        assertFalse(service.isLastFallback());
+    }
+
+    @Test
+    void testSort_StreamSkipsNulls() {
+        List<Bus> buses = Arrays.asList(new Bus("B", "Volvo", 2), null, new Bus("A", "Volvo", 1), new Bus("C", "Volvo", 3));
+        List<String> numbers = new KSortedStreamService(byMileage, 1).sort(buses.stream())
+                .map(Bus::getBusNumber)
+                .collect(Collectors.toList());
+        assertEquals(List.of("A", "B", "C"), numbers);
+    }
+
+    @Test
+    void testSort_UnboundedStream() {
+        // Бесконечный поток: пары соседей переставлены местами
+        Stream<Bus> feed = Stream.iterate(0, i -> i + 1).map(i -> new Bus("AB" + i, "Volvo", i ^ 1));
+        List<Integer> first = new KSortedStreamService(byMileage, 1).sort(feed)
+                .limit(6)
+                .map(Bus::getMileage)
+                .collect(Collectors.toList());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), first);
+    }
+
+    @Test
+    void testSortFile() throws IOException {
+        Path input = tempDir.resolve("feed.txt");
+        Path output = tempDir.resolve("sorted.txt");
+        Files.write(input, List.of("AB2,Volvo,200", "AB1,MAN,100", "broken", "", "AB4,Iveco,400", "AB3,Volvo,300"),
+                StandardCharsets.UTF_8);
+
+        long count = new KSortedStreamService(new BusComparator("пробег", "модель", "номер"), 1)
+                .sortFile(input.toString(), output.toString());
+        assertEquals(4, count);
+        assertEquals(List.of("AB1,MAN,100", "AB2,Volvo,200", "AB3,Volvo,300", "AB4,Iveco,400"),
+                Files.readAllLines(output, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testConstructor_RejectsNegativeK() {
+        assertThrows(IllegalArgumentException.class, () -> new KSortedStreamService(byMileage, -1));
+    }
+}
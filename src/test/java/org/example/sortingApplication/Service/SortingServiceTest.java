@@ -1,10 +1,24 @@
 package org.example.sortingApplication.Service;
 
 import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.domain.BusCollection;
 import org.example.sortingApplication.service.SortingService;
+import org.example.sortingApplication.strategy.SortCancelledException;
+import org.example.sortingApplication.strategy.SortControl;
 import org.example.sortingApplication.strategy.SortStrategy;
+import org.example.sortingApplication.strategy.TimSortStrategy;
+import org.example.sortingApplication.util.BusComparator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 
@@ -201,4 +215,249 @@ class SortingServiceTest {
         assertEquals(bus1, result[2]);
         assertEquals("Reverse strategy", reverseStrategy.getDescription());
     }
+
+    @Test
+    void testPerformSortWithControl_TimeLimitRestartsForEachSort() {
+        sortingService.setStrategy(new TimSortStrategy(Comparator.comparingInt(Bus::getMileage), true));
+        List<Long> progress = new ArrayList<>();
+        SortControl control = new SortControl(Duration.ofMinutes(1), (done, total) -> progress.add(done));
+
+        Bus[] first = sortingService.performSort(new Bus[]{bus1, bus2, bus3}, control);
+        Bus[] second = sortingService.performSort(new Bus[]{bus3, bus1, bus2}, control);
+
+        assertArrayEquals(new Bus[]{bus2, bus1, bus3}, first);
+        assertArrayEquals(new Bus[]{bus2, bus1, bus3}, second);
+        assertFalse(progress.isEmpty());
+    }
+
+    @Test
+    void testPerformSortWithControl_DefaultStrategyChecksBeforeStart() {
+        SortStrategy strategy = new SortStrategy() {
+            @Override
+            public Bus[] sort(Bus[] buses) {
+                fail("Cancelled sort should not start");
+                return buses;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Never";
+            }
+        };
+        sortingService.setStrategy(strategy);
+        SortControl control = new SortControl(Duration.ZERO, null);
+
+        SortCancelledException exception = assertThrows(SortCancelledException.class,
+                () -> sortingService.performSort(new Bus[]{bus1, bus2}, control));
+        assertTrue(exception.isTimedOut());
+    }
+
+    @Test
+    void testPerformSortWithControl_CancelBeforeStartIsKept() {
+        sortingService.setStrategy(new TimSortStrategy(Comparator.comparingInt(Bus::getMileage), true));
+        SortControl control = new SortControl(null, null);
+        control.cancel();
+        Bus[] buses = {bus1, bus2, bus3};
+
+        SortCancelledException exception = assertThrows(SortCancelledException.class,
+                () -> sortingService.performSort(buses, control));
+        assertFalse(exception.isTimedOut());
+        assertArrayEquals(new Bus[]{bus1, bus2, bus3}, buses);
+        // Отменённый экземпляр не оживает и для следующей сортировки
+        assertThrows(SortCancelledException.class, () -> sortingService.performSort(buses, control));
+    }
+
+    private static BusCollection randomCollection(int size, long seed) {
+        Random random = new Random(seed);
+        String[] models = {"Mercedes", "Volvo", "MAN", "Scania", "Iveco"};
+        BusCollection collection = new BusCollection();
+        for (int i = 0; i < size; i++) {
+            collection.add(new Bus("AB" + random.nextInt(1000), models[random.nextInt(models.length)],
+                    random.nextInt(50)));
+        }
+        return collection;
+    }
+
+    private static void assertStableSorted(Bus[] original, BusComparator comparator, BusCollection collection) {
+        Bus[] expected = original.clone();
+        Arrays.sort(expected, comparator);
+        assertArrayEquals(expected, collection.toArray());
+    }
+
+    @Test
+    void testSortCollection_RefinesOnlyEqualRunsWhenOrderExtended() {
+        for (int size : new int[]{1000, 100_000}) {
+            BusCollection collection = randomCollection(size, size);
+            Bus[] original = collection.toArray();
+            SortControl control = new SortControl(null, null);
+
+            BusComparator byModel = new BusComparator("модель", null, null);
+            sortingService.setStrategy(new TimSortStrategy(byModel, true));
+            sortingService.sortCollection(collection, byModel, control);
+            assertFalse(sortingService.isLastRefinement());
+            assertSame(byModel, collection.getSortedBy());
+
+            // Стратегия не должна понадобиться
+            sortingService.setStrategy(null);
+            BusComparator byModelAndMileage = new BusComparator("модель", "пробег", "номер");
+            sortingService.sortCollection(collection, byModelAndMileage, control);
+            assertTrue(sortingService.isLastRefinement());
+            assertStableSorted(original, byModelAndMileage, collection);
+        }
+    }
+
+    @Test
+    void testSortCollection_RefinementOnGivenPoolReportsProgress() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            SortingService service = new SortingService(pool);
+            BusCollection collection = randomCollection(200_000, 7);
+            Bus[] original = collection.toArray();
+            BusComparator byModel = new BusComparator("модель", null, null);
+            service.setStrategy(new TimSortStrategy(byModel, true));
+            service.sortCollection(collection, byModel, new SortControl(null, null));
+
+            long[] last = {-1, -1};
+            SortControl control = new SortControl(Duration.ofMinutes(5), (done, total) -> {
+                assertTrue(done >= last[0] && done <= total);
+                last[0] = done;
+                last[1] = total;
+            });
+            BusComparator byModelAndMileage = new BusComparator("модель", "пробег", "номер");
+            service.sortCollection(collection, byModelAndMileage, control);
+            assertTrue(service.isLastRefinement());
+            assertStableSorted(original, byModelAndMileage, collection);
+            assertEquals(original.length, last[0]);
+            assertEquals(original.length, last[1]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSortCollection_CancelledRefinementKeepsCollection() {
+        // пул из одного потока - группы досортировываются по очереди, отмена приходит между ними
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            SortingService service = new SortingService(pool);
+            BusCollection collection = randomCollection(200_000, 8);
+            BusComparator byModel = new BusComparator("модель", null, null);
+            service.setStrategy(new TimSortStrategy(byModel, true));
+            service.sortCollection(collection, byModel, new SortControl(null, null));
+            Bus[] sortedByModel = collection.toArray();
+
+            SortControl[] holder = new SortControl[1];
+            holder[0] = new SortControl(null, (done, total) -> {
+                if (done * 2 > total) {
+                    holder[0].cancel();
+                }
+            });
+            SortCancelledException exception = assertThrows(SortCancelledException.class,
+                    () -> service.sortCollection(collection, new BusComparator("модель", "пробег", "номер"), holder[0]));
+            assertFalse(exception.isTimedOut());
+            assertArrayEquals(sortedByModel, collection.toArray());
+            assertSame(byModel, collection.getSortedBy());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSortCollection_FullSortWhenOrderIsNotExtension() {
+        BusCollection collection = randomCollection(2000, 1);
+        Bus[] original = collection.toArray();
+        SortControl control = new SortControl(null, null);
+
+        BusComparator byModel = new BusComparator("модель", "пробег", null);
+        sortingService.setStrategy(new TimSortStrategy(byModel, true));
+        sortingService.sortCollection(collection, byModel, control);
+
+        // Другое первое поле и другой учёт регистра - нужна полная сортировка
+        for (BusComparator comparator : new BusComparator[]{
+                new BusComparator("пробег", "модель", "номер"),
+                new BusComparator("пробег", "модель", "номер", false)}) {
+            sortingService.setStrategy(new TimSortStrategy(comparator, true));
+            sortingService.sortCollection(collection, comparator, control);
+            assertFalse(sortingService.isLastRefinement());
+            assertStableSorted(original, comparator, collection);
+        }
+    }
+
+    @Test
+    void testSortCollection_ForgetsOrderAfterChange() {
+        BusCollection collection = randomCollection(500, 2);
+        SortControl control = new SortControl(null, null);
+        BusComparator byModel = new BusComparator("модель", null, null);
+        sortingService.setStrategy(new TimSortStrategy(byModel, true));
+        sortingService.sortCollection(collection, byModel, control);
+
+        collection.add(new Bus("AB1", "Aaa", 1));
+        BusComparator byModelAndNumber = new BusComparator("модель", "номер", null);
+        sortingService.setStrategy(new TimSortStrategy(byModelAndNumber, true));
+        sortingService.sortCollection(collection, byModelAndNumber, control);
+        assertFalse(sortingService.isLastRefinement());
+        assertEquals("Aaa", collection.get(0).getModel());
+
+        // Порядок неизвестен (null) - не запоминается
+        sortingService.sortCollection(collection, null, control);
+        assertNull(collection.getSortedBy());
+    }
+
+    @Test
+    void testApplyDelta_MatchesFullSortAfterChanges() {
+        for (int size : new int[]{0, 10, 50_000}) {
+            BusCollection collection = randomCollection(size, size + 3);
+            BusComparator comparator = new BusComparator("модель", "пробег", "номер");
+            sortingService.setStrategy(new TimSortStrategy(comparator, true));
+            sortingService.sortCollection(collection, comparator, new SortControl(null, null));
+
+            // Новые и изменённые автобусы (номера AB0...AB999 уже есть в коллекции), удаления по номеру
+            Random random = new Random(size);
+            List<Bus> upserts = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                String number = random.nextBoolean() ? "AB" + random.nextInt(1000) : "NEW" + i;
+                upserts.add(new Bus(number, random.nextBoolean() ? "Volvo" : "Ikarus", random.nextInt(50)));
+            }
+            List<String> deleted = List.of("AB1", "AB2", "AB3", "missing");
+
+            List<Bus> expected = new ArrayList<>();
+            for (Bus bus : collection) {
+                String number = bus.getBusNumber();
+                if (!deleted.contains(number) && upserts.stream().noneMatch(u -> u.getBusNumber().equals(number))) {
+                    expected.add(bus);
+                }
+            }
+            int removed = collection.size() - expected.size();
+            expected.addAll(upserts);
+            expected.sort(comparator);
+
+            assertEquals(removed, sortingService.applyDelta(collection, upserts, deleted));
+            assertEquals(expected, Arrays.asList(collection.toArray()));
+            assertEquals(expected.size(), collection.size());
+            assertSame(comparator, collection.getSortedBy());
+        }
+    }
+
+    @Test
+    void testApplyDelta_OnlyDeletes() {
+        BusCollection collection = new BusCollection();
+        collection.add(new Bus("A", "Volvo", 3));
+        collection.add(new Bus("B", "Volvo", 1));
+        collection.add(new Bus("C", "Volvo", 2));
+        BusComparator byMileage = new BusComparator("пробег", "номер", "модель");
+        sortingService.setStrategy(new TimSortStrategy(byMileage, true));
+        sortingService.sortCollection(collection, byMileage, new SortControl(null, null));
+
+        assertEquals(2, sortingService.applyDelta(collection, List.of(), List.of("B", "A")));
+        assertEquals(1, collection.size());
+        assertEquals("C", collection.get(0).getBusNumber());
+    }
+
+    @Test
+    void testApplyDelta_RequiresSortedCollection() {
+        BusCollection collection = randomCollection(10, 4);
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> sortingService.applyDelta(collection, List.of(bus1), List.of()));
+        assertTrue(exception.getMessage().contains("не отсортирована"));
+    }
 }
@@ -0,0 +1,114 @@
+package org.example.sortingApplication.Service;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.service.TopKService;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKServiceTest {
+    @TempDir
+    Path tempDir;
+
+    private final Comparator<Bus> byMileage = Comparator.comparingInt(Bus::getMileage);
+
+    private static List<Bus> randomBuses(int size, int maxMileage, long seed) {
+        Random random = new Random(seed);
+        List<Bus> buses = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            buses.add(new Bus("AB" + i, "Volvo", random.nextInt(maxMileage)));
+        }
+        return buses;
+    }
+
+    @Test
+    void testSelect_MatchesPrefixOfStableSort() {
+        for (int maxMileage : new int[]{10, 1_000_000}) {
+            List<Bus> buses = randomBuses(5000, maxMileage, maxMileage);
+            List<Bus> sorted = new ArrayList<>(buses);
+            sorted.sort(byMileage);
+
+            List<Bus> top = new TopKService(byMileage, 100).select(buses.iterator());
+            assertEquals(100, top.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertSame(sorted.get(i), top.get(i), "index " + i);
+            }
+        }
+    }
+
+    @Test
+    void testSelect_HighestMileageWithReversedComparator() {
+        List<Bus> buses = randomBuses(1000, 1_000_000, 1);
+        List<Bus> top = new TopKService(byMileage.reversed(), 3).select(buses.iterator());
+
+        int[] expected = buses.stream().mapToInt(Bus::getMileage).sorted().toArray();
+        assertEquals(expected[999], top.get(0).getMileage());
+        assertEquals(expected[998], top.get(1).getMileage());
+        assertEquals(expected[997], top.get(2).getMileage());
+    }
+
+    @Test
+    void testSelect_TiesAtCutoff() {
+        List<Bus> buses = Arrays.asList(
+                new Bus("A", "Volvo", 50), new Bus("B", "Volvo", 20), new Bus("C", "Volvo", 30),
+                new Bus("D", "Volvo", 30), new Bus("E", "Volvo", 10), new Bus("F", "Volvo", 30),
+                new Bus("G", "Volvo", 40));
+
+        List<Bus> exact = new TopKService(byMileage, 3).select(buses.iterator());
+        assertEquals(List.of("E", "B", "C"), numbers(exact));
+
+        List<Bus> withTies = new TopKService(byMileage, 3, true).select(buses.iterator());
+        assertEquals(List.of("E", "B", "C", "D", "F"), numbers(withTies));
+    }
+
+    @Test
+    void testSelect_TiesDroppedWhenCutoffMoves() {
+        List<Bus> buses = Arrays.asList(
+                new Bus("A", "Volvo", 30), new Bus("B", "Volvo", 30), new Bus("C", "Volvo", 30),
+                new Bus("D", "Volvo", 10), new Bus("E", "Volvo", 20));
+
+        List<Bus> withTies = new TopKService(byMileage, 2, true).select(buses.iterator());
+        assertEquals(List.of("D", "E"), numbers(withTies));
+    }
+
+    @Test
+    void testSelect_FewerThanK() {
+        List<Bus> buses = Arrays.asList(new Bus("A", "Volvo", 3), null, new Bus("B", "Volvo", 1));
+        assertEquals(List.of("B", "A"), numbers(new TopKService(byMileage, 10).select(buses.iterator())));
+    }
+
+    @Test
+    void testSelectFromFile() throws IOException {
+        Path file = tempDir.resolve("fleet.txt");
+        Files.write(file, List.of("AB300,Volvo,300", "broken", "", "AB100,MAN,100", "AB200,Iveco,200"),
+                StandardCharsets.UTF_8);
+
+        List<Bus> top = new TopKService(new BusComparator("пробег", "модель", "номер"), 2)
+                .selectFromFile(file.toString());
+        assertEquals(List.of("AB100", "AB200"), numbers(top));
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveK() {
+        assertThrows(IllegalArgumentException.class, () -> new TopKService(byMileage, 0));
+    }
+
+    private static List<String> numbers(List<Bus> buses) {
+        List<String> numbers = new ArrayList<>();
+        for (Bus bus : buses) {
+            numbers.add(bus.getBusNumber());
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.sortingApplication.benchmark;
+
+import org.example.sortingApplication.util.MileageKernels;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Сравнение скалярных и векторных ядер на столбце пробегов.
+ * Лежит в тестовых исходниках, чтобы не попадать в jar приложения.
+ * Сборка и запуск с векторными ядрами:
+ * mvn -Pvector test-compile, затем
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes
+ * org.example.sortingApplication.benchmark.MileageKernelBenchmark [размер]
+ */
+public class MileageKernelBenchmark {
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 11;
+
+    public static void main(String[] args) {
+        int size = args.length == 0 ? 1 << 22 : Integer.parseInt(args[0]);
+        Random random = new Random(42);
+        int[] mileages = new int[size];
+        for (int i = 0; i < size; i++) {
+            mileages[i] = random.nextInt(1_000_001);
+        }
+        long[] words = new long[(size + 63) >>> 6];
+        int[] counts = new int[1 << 11];
+
+        MileageKernels scalar = MileageKernels.scalar();
+        MileageKernels best = MileageKernels.get();
+        System.out.printf("Размер: %d, время в мс (медиана из %d)%n", size, MEASURED_RUNS);
+        System.out.printf("%-24s%16s%24s%n", "", scalar.getName(), best.getName());
+
+        print("min/max", scalar, best, k -> k.minMax(mileages, size));
+        print("маска четности", scalar, best, k -> k.evenMask(mileages, 0, size, words));
+        print("гистограмма разряда", scalar, best, k -> {
+            Arrays.fill(counts, 0);
+            k.digitHistogram(mileages, size, 0, 11, (1 << 11) - 1, counts);
+        });
+    }
+
+    private static void print(String name, MileageKernels scalar, MileageKernels best, Consumer<MileageKernels> kernel) {
+        double scalarTime = measure(() -> kernel.accept(scalar));
+        double bestTime = measure(() -> kernel.accept(best));
+        System.out.printf("%-24s%16.3f%24.3f   x%.1f%n", name, scalarTime, bestTime, scalarTime / bestTime);
+    }
+
+    private static double measure(Runnable task) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            task.run();
+        }
+        long[] times = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[MEASURED_RUNS / 2] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.sortingApplication.benchmark;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.strategy.AbbreviatedKeySortStrategy;
+import org.example.sortingApplication.strategy.AdaptiveSortStrategy;
+import org.example.sortingApplication.strategy.MileageRadixSortStrategy;
+import org.example.sortingApplication.strategy.NormalizedKeySortStrategy;
+import org.example.sortingApplication.strategy.PdqSortStrategy;
+import org.example.sortingApplication.strategy.SortStrategy;
+import org.example.sortingApplication.strategy.TimSortStrategy;
+import org.example.sortingApplication.util.BusComparator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Простой замер стратегий сортировки на разных видах данных.
+ * Каждая стратегия прогревается, затем выводится медиана времени нескольких запусков.
+ * Лежит в тестовых исходниках, чтобы не попадать в jar приложения.
+ * Запуск: mvn test-compile, затем
+ * java -cp target/classes:target/test-classes org.example.sortingApplication.benchmark.SortBenchmark [размер...]
+ */
+public class SortBenchmark {
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 7;
+    private static final int SMALL_BLOCK = 32;
+    private static final String[] MODELS = {"Mercedes", "Volvo", "MAN", "Scania", "Iveco"};
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0
+                ? new int[]{10_000, 1_000_000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+
+        // Дорогой компаратор из трёх полей и дешёвый - только по пробегу
+        BusComparator comparator = new BusComparator("пробег", "модель", "номер");
+        Comparator<Bus> mileageOnly = Comparator.comparingInt(Bus::getMileage);
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        Map<String, Supplier<SortStrategy>> strategies = new LinkedHashMap<>();
+        strategies.put("TimSort", () -> new TimSortStrategy(comparator, true));
+        strategies.put("pdqsort", () -> new PdqSortStrategy(comparator));
+        strategies.put("pdqsort (стаб.)", () -> new PdqSortStrategy(comparator, true));
+        strategies.put("поразрядная", () -> new MileageRadixSortStrategy(comparator));
+        strategies.put("адаптивная", () -> new AdaptiveSortStrategy(comparator, pool));
+        strategies.put("TimSort, int", () -> new TimSortStrategy(mileageOnly, true));
+        strategies.put("pdqsort, int", () -> new PdqSortStrategy(mileageOnly));
+
+        for (int size : sizes) {
+            System.out.printf("%nРазмер: %d, время в мс (медиана из %d)%n", size, MEASURED_RUNS);
+            Map<String, Bus[]> datasets = datasets(size, new Random(42));
+            System.out.printf("%-20s", "");
+            for (String name : datasets.keySet()) {
+                System.out.printf("%16s", name);
+            }
+            System.out.println();
+
+            for (Map.Entry<String, Supplier<SortStrategy>> strategy : strategies.entrySet()) {
+                System.out.printf("%-20s", strategy.getKey());
+                for (Bus[] data : datasets.values()) {
+                    SortStrategy instance = strategy.getValue().get();
+                    System.out.printf("%16.2f", measure(data, instance::sort));
+                }
+                System.out.println();
+            }
+        }
+
+        pool.shutdown();
+        smallBlocksBenchmark(comparator);
+        stringKeysBenchmark(sizes[sizes.length - 1]);
+    }
+
+    /**
+     * Сортировка по строковому первому полю: каждое сравнение BusComparator идёт по ссылкам
+     * к строкам, а сокращённые ключи решают большинство сравнений по long-префиксам
+     */
+    private static void stringKeysBenchmark(int size) {
+        BusComparator comparator = new BusComparator("номер", "модель", "пробег");
+        Random random = new Random(11);
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            buses[i] = new Bus("AB" + random.nextInt(size), MODELS[random.nextInt(MODELS.length)],
+                    random.nextInt(1_000_000));
+        }
+
+        System.out.printf("%nПервое поле - номер, размер %d, время в мс (медиана из %d)%n", size, MEASURED_RUNS);
+        System.out.printf("%-20s%16.2f%n", "TimSort",
+                measure(buses, new TimSortStrategy(comparator, true)::sort));
+        System.out.printf("%-20s%16.2f%n", "норм. ключи",
+                measure(buses, new NormalizedKeySortStrategy(comparator)::sort));
+        System.out.printf("%-20s%16.2f%n", "префиксы ключей",
+                measure(buses, new AbbreviatedKeySortStrategy(comparator)::sort));
+    }
+
+    /**
+     * Базовый случай TimSort: массив режется на блоки по 32 и каждый блок сортируется вставками.
+     * Сравниваются обычные вставки с компаратором и вставки по int-ключам пробега.
+     * Ссылка на метод прячет BusComparator, поэтому во втором сортировщике ядро выключено.
+     */
+    private static void smallBlocksBenchmark(BusComparator comparator) {
+        TimSortStrategy withKernel = new TimSortStrategy(comparator);
+        TimSortStrategy plain = new TimSortStrategy(comparator::compare);
+        int size = 1 << 20;
+
+        System.out.printf("%nБлоки по %d элементов, всего %d, время в мс (медиана из %d)%n",
+                SMALL_BLOCK, size, MEASURED_RUNS);
+        System.out.printf("%-20s%16s%16s%n", "", "случайные", "мало значений");
+        Bus[] distinct = randomFleet(size, 1_000_000, new Random(7));
+        Bus[] duplicates = randomFleet(size, 16, new Random(7));
+        System.out.printf("%-20s%16.2f%16.2f%n", "вставки",
+                measure(distinct, data -> sortBlocks(plain, data)),
+                measure(duplicates, data -> sortBlocks(plain, data)));
+        System.out.printf("%-20s%16.2f%16.2f%n", "ключи пробега",
+                measure(distinct, data -> sortBlocks(withKernel, data)),
+                measure(duplicates, data -> sortBlocks(withKernel, data)));
+    }
+
+    private static Bus[] sortBlocks(TimSortStrategy sorter, Bus[] data) {
+        for (int i = 0; i < data.length; i += SMALL_BLOCK) {
+            sorter.insertionSort(data, i, Math.min(i + SMALL_BLOCK, data.length) - 1);
+        }
+        return data;
+    }
+
+    /**
+     * Медиана времени сортировки копии data, в миллисекундах
+     */
+    static double measure(Bus[] data, Function<Bus[], Bus[]> sort) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            sort.apply(data.clone());
+        }
+        long[] times = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            Bus[] copy = data.clone();
+            long start = System.nanoTime();
+            sort.apply(copy);
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[MEASURED_RUNS / 2] / 1_000_000.0;
+    }
+
+    static Map<String, Bus[]> datasets(int size, Random random) {
+        Map<String, Bus[]> datasets = new LinkedHashMap<>();
+
+        Bus[] randomFleet = randomFleet(size, 1_000_000, random);
+        datasets.put("случайные", randomFleet);
+
+        Bus[] sorted = randomFleet.clone();
+        Arrays.sort(sorted, new BusComparator("пробег", "модель", "номер"));
+        datasets.put("отсортир.", sorted);
+
+        Bus[] reversed = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            reversed[i] = sorted[size - 1 - i];
+        }
+        datasets.put("обратные", reversed);
+
+        Bus[] nearlySorted = sorted.clone();
+        for (int i = 0; i < size / 100; i++) {
+            int a = random.nextInt(size);
+            int b = random.nextInt(size);
+            Bus t = nearlySorted[a];
+            nearlySorted[a] = nearlySorted[b];
+            nearlySorted[b] = t;
+        }
+        datasets.put("почти отсорт.", nearlySorted);
+
+        datasets.put("мало значений", randomFleet(size, 16, random));
+        return datasets;
+    }
+
+    static Bus[] randomFleet(int size, int maxMileage, Random random) {
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            buses[i] = new Bus("AB" + (100 + random.nextInt(900)), MODELS[random.nextInt(MODELS.length)],
+                    random.nextInt(maxMileage));
+        }
+        return buses;
+    }
+}
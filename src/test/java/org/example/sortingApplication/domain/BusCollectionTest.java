@@ -2,6 +2,7 @@ package org.example.sortingApplication.domain;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.stream.Stream;
@@ -174,4 +175,35 @@ class BusCollectionTest {
         // Возможно, тебе нужно добавить сеттер для size или пересмотреть логику
         // Этот тест может не работать без дополнительных изменений
     }
+
+    @Test
+    void testSortedBy_ResetOnChange() {
+        Comparator<Bus> byMileage = Comparator.comparingInt(Bus::getMileage);
+        collection.add(bus1);
+        collection.setSortedBy(byMileage);
+        assertSame(byMileage, collection.getSortedBy());
+
+        collection.add(bus2);
+        assertNull(collection.getSortedBy());
+
+        collection.setSortedBy(byMileage);
+        collection.setBuses(new Bus[]{bus2, bus1});
+        assertNull(collection.getSortedBy());
+    }
+
+    @Test
+    void testReplaceContents_UpdatesSize() {
+        collection.add(bus1);
+        collection.replaceContents(new Bus[]{bus3, bus2, bus1});
+        assertEquals(3, collection.size());
+        assertEquals(bus3, collection.get(0));
+
+        collection.add(bus2);
+        assertEquals(4, collection.size());
+
+        collection.replaceContents(new Bus[0]);
+        assertTrue(collection.isEmpty());
+        collection.add(bus1);
+        assertEquals(bus1, collection.get(0));
+    }
 }
@@ -0,0 +1,104 @@
+package org.example.sortingApplication.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class AbbreviatedKeySortStrategyTest {
+
+    private static Bus[] fleet(int size, long seed) {
+        Random random = new Random(seed);
+        String[] models = {"Mercedes", "Mercedes-Benz", "Volvo", "MAN", "man", "ЛиАЗ", "лиаз", "Scania"};
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            buses[i] = new Bus((random.nextBoolean() ? "AB" : "ab") + (100 + random.nextInt(200)),
+                    models[random.nextInt(models.length)], random.nextInt(50) - 10);
+        }
+        return buses;
+    }
+
+    @Test
+    void testSort_NullAndEmptyArrays() {
+        AbbreviatedKeySortStrategy sorter = new AbbreviatedKeySortStrategy(new BusComparator("номер", "модель", "пробег"));
+        assertNull(sorter.sort(null));
+        assertEquals(0, sorter.sort(new Bus[0]).length);
+    }
+
+    @Test
+    void testSort_MatchesStableSortForEveryFieldOrder() {
+        String[][] orders = {
+                {"номер", "модель", "пробег"},
+                {"модель", "пробег", "номер"},
+                {"пробег", "номер", "модель"}
+        };
+        for (String[] order : orders) {
+            for (boolean caseSensitive : new boolean[]{true, false}) {
+                BusComparator comparator = new BusComparator(order[0], order[1], order[2], caseSensitive);
+                for (int size : new int[]{1, 31, 33, 1000, 5000}) {
+                    Bus[] buses = fleet(size, size + order[0].hashCode());
+                    Bus[] expected = buses.clone();
+                    Arrays.sort(expected, comparator);
+
+                    Bus[] result = new AbbreviatedKeySortStrategy(comparator).sort(buses);
+                    for (int i = 0; i < expected.length; i++) {
+                        assertSame(expected[i], result[i], Arrays.toString(order) + " size " + size + " index " + i);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSort_LongCommonPrefixesFallBackToComparator() {
+        // Первые 8 байтов у всех одинаковы - решает только полный компаратор
+        BusComparator comparator = new BusComparator("модель", "пробег", "номер");
+        Random random = new Random(1);
+        Bus[] buses = new Bus[2000];
+        for (int i = 0; i < buses.length; i++) {
+            buses[i] = new Bus("N" + i, "Mercedes-Benz Citaro " + random.nextInt(100), random.nextInt(10));
+        }
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, comparator);
+
+        assertArrayEquals(expected, new AbbreviatedKeySortStrategy(comparator).sort(buses));
+    }
+
+    @Test
+    void testSort_DistinctPrefixesRarelyCallComparator() {
+        BusComparator comparator = new BusComparator("номер", "модель", "пробег");
+        Random random = new Random(2);
+        Bus[] buses = new Bus[20000];
+        for (int i = 0; i < buses.length; i++) {
+            buses[i] = new Bus("AB" + (1000000 + random.nextInt(9000000)), "Volvo", 1);
+        }
+        AbbreviatedKeySortStrategy sorter = new AbbreviatedKeySortStrategy(comparator);
+        sorter.sort(buses);
+
+        // Номера различаются в первых 8 байтах, кроме редких совпадений номеров целиком
+        assertTrue(sorter.getTieComparisonCount() < buses.length / 10, "ties: " + sorter.getTieComparisonCount());
+    }
+
+    @Test
+    void testSortPermutation_DoesNotModifyArray() {
+        BusComparator comparator = new BusComparator("модель", "номер", "пробег");
+        Bus[] buses = fleet(3000, 3);
+        Bus[] original = buses.clone();
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, comparator);
+
+        int[] permutation = new AbbreviatedKeySortStrategy(comparator).sortPermutation(buses);
+        assertArrayEquals(original, buses);
+        assertArrayEquals(expected, SortStrategy.applyPermutation(buses, permutation));
+    }
+
+    @Test
+    void testGetDescription() {
+        assertEquals("Сортировка с 8-байтными префиксами ключей (компаратор только при равных префиксах)",
+                new AbbreviatedKeySortStrategy(new BusComparator("номер", "модель", "пробег")).getDescription());
+    }
+}
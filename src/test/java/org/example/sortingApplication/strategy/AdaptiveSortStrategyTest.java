@@ -0,0 +1,141 @@
+package org.example.sortingApplication.strategy;
+
+import static org.example.sortingApplication.strategy.BusFixtures.assertPermutationOf;
+import static org.example.sortingApplication.strategy.BusFixtures.assertStableSorted;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.strategy.AdaptiveSortStrategy.Choice;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class AdaptiveSortStrategyTest {
+
+    private static final ForkJoinPool singleThread = new ForkJoinPool(1);
+    private static final ForkJoinPool fourThreads = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdownPools() {
+        singleThread.shutdown();
+        fourThreads.shutdown();
+    }
+
+    private static Bus[] randomBuses(int size, int distinctModels, Random random) {
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            buses[i] = new Bus("AB" + random.nextInt(100_000), "Model" + random.nextInt(distinctModels),
+                    random.nextInt(1_000_000));
+        }
+        return buses;
+    }
+
+    private static Choice sortAndGetChoice(BusComparator comparator, ForkJoinPool pool, Bus[] buses) {
+        AdaptiveSortStrategy strategy = new AdaptiveSortStrategy(comparator, pool);
+        assertStableSorted(comparator, buses, strategy.sort(buses.clone()));
+        return strategy.getLastChoice();
+    }
+
+    @Test
+    void testSmallArray_Insertion() {
+        BusComparator comparator = new BusComparator("модель", "номер", "пробег");
+        assertEquals(Choice.INSERTION, sortAndGetChoice(comparator, singleThread, randomBuses(20, 5, new Random(1))));
+    }
+
+    @Test
+    void testPresortedInput_NaturalMerge() {
+        BusComparator comparator = new BusComparator("пробег", "модель", "номер");
+        Bus[] buses = randomBuses(5000, 50, new Random(2));
+        Arrays.sort(buses, comparator);
+        assertEquals(Choice.NATURAL_MERGE, sortAndGetChoice(comparator, singleThread, buses));
+
+        Bus[] reversed = new Bus[buses.length];
+        for (int i = 0; i < buses.length; i++) {
+            reversed[i] = buses[buses.length - 1 - i];
+        }
+        assertEquals(Choice.NATURAL_MERGE, sortAndGetChoice(comparator, singleThread, reversed));
+    }
+
+    @Test
+    void testRandomMileage_MileageRadix() {
+        BusComparator comparator = new BusComparator("пробег", "модель", "номер");
+        assertEquals(Choice.MILEAGE_RADIX, sortAndGetChoice(comparator, fourThreads, randomBuses(5000, 50, new Random(3))));
+    }
+
+    @Test
+    void testRandomStrings_StringRadixOrParallel() {
+        BusComparator comparator = new BusComparator("номер", "модель", "пробег", false);
+        assertEquals(Choice.STRING_RADIX, sortAndGetChoice(comparator, fourThreads, randomBuses(5000, 50, new Random(4))));
+        assertEquals(Choice.STRING_RADIX,
+                sortAndGetChoice(comparator, singleThread, randomBuses(1 << 16, 50, new Random(5))));
+        assertEquals(Choice.PARALLEL,
+                sortAndGetChoice(comparator, fourThreads, randomBuses(1 << 16, 50, new Random(5))));
+    }
+
+    @Test
+    void testFewDistinctStrings_NaturalMerge() {
+        BusComparator comparator = new BusComparator("модель", "пробег", "номер");
+        AdaptiveSortStrategy strategy = new AdaptiveSortStrategy(comparator, singleThread);
+        Bus[] buses = randomBuses(5000, 4, new Random(6));
+
+        assertStableSorted(comparator, buses, strategy.sort(buses.clone()));
+        assertEquals(Choice.NATURAL_MERGE, strategy.getLastChoice());
+        assertTrue(strategy.getLastDecision().contains("мало разных значений"), strategy.getLastDecision());
+    }
+
+    @Test
+    void testDecisionBeforeFirstSort() {
+        AdaptiveSortStrategy strategy = new AdaptiveSortStrategy(new BusComparator("пробег", null, null), singleThread);
+        assertNull(strategy.getLastChoice());
+        assertEquals("сортировка ещё не выполнялась", strategy.getLastDecision());
+        assertEquals("Автоматический выбор алгоритма по выборке из данных", strategy.getDescription());
+    }
+
+    @Test
+    void testSortWithControl_CancelReachesChosenStrategy() {
+        for (String primary : new String[]{"пробег", "номер"}) {
+            Bus[] original = randomBuses(100_000, 1_000, new Random(13));
+            Bus[] array = original.clone();
+            SortControl[] holder = new SortControl[1];
+            holder[0] = new SortControl(null, (done, total) -> {
+                if (done * 2 > total) {
+                    holder[0].cancel();
+                }
+            });
+            holder[0].start();
+            BusComparator comparator = new BusComparator(primary, "модель", primary.equals("номер") ? "пробег" : "номер");
+            AdaptiveSortStrategy strategy = new AdaptiveSortStrategy(comparator, singleThread);
+
+            // отмена приходит из отчёта о ходе работы, который шлёт уже выбранная поразрядная сортировка
+            SortCancelledException exception = assertThrows(SortCancelledException.class,
+                    () -> strategy.sort(array, holder[0]));
+            assertFalse(exception.isTimedOut());
+            assertEquals(primary.equals("пробег") ? Choice.MILEAGE_RADIX : Choice.STRING_RADIX,
+                    strategy.getLastChoice());
+            assertPermutationOf(original, array);
+        }
+    }
+
+    @Test
+    void testSortWithControl_SortsWithChosenStrategy() {
+        BusComparator comparator = new BusComparator("модель", "номер", "пробег");
+        Bus[] original = randomBuses(100_000, 5_000, new Random(14));
+        long[] last = {-1, -1};
+        SortControl control = new SortControl(Duration.ofMinutes(5), (done, total) -> {
+            last[0] = done;
+            last[1] = total;
+        });
+        control.start();
+
+        AdaptiveSortStrategy strategy = new AdaptiveSortStrategy(comparator, fourThreads);
+        assertStableSorted(comparator, original, strategy.sort(original.clone(), control));
+        assertEquals(Choice.PARALLEL, strategy.getLastChoice());
+        assertEquals(original.length, last[0]);
+        assertEquals(original.length, last[1]);
+    }
+}
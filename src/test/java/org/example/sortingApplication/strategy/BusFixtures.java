@@ -0,0 +1,61 @@
+package org.example.sortingApplication.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Общие заготовки для тестов стратегий: случайный парк и проверки результата сортировки
+ */
+final class BusFixtures {
+    static final String[] MODELS = {"Mercedes", "Volvo", "MAN", "Scania", "Iveco"};
+
+    private BusFixtures() {
+    }
+
+    /**
+     * Номера "AB100"... из numbers разных (повторяются, поэтому есть полностью равные
+     * по компаратору автобусы), модели из models, пробег от 0 до maxMileage включительно
+     */
+    static Bus[] randomBuses(int size, long seed, String[] models, int numbers, int maxMileage) {
+        Random random = new Random(seed);
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            buses[i] = new Bus("AB" + (100 + random.nextInt(numbers)), models[random.nextInt(models.length)],
+                    random.nextInt(maxMileage + 1));
+        }
+        return buses;
+    }
+
+    /**
+     * result - стабильная сортировка original по comparator (те же объекты в том же порядке)
+     */
+    static void assertStableSorted(Comparator<? super Bus> comparator, Bus[] original, Bus[] result) {
+        Bus[] expected = original.clone();
+        Arrays.sort(expected, comparator);
+        assertEquals(expected.length, result.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i], result[i], "index " + i);
+        }
+    }
+
+    /**
+     * actual содержит те же объекты, что original, столько же раз
+     */
+    static void assertPermutationOf(Bus[] original, Bus[] actual) {
+        Map<Bus, Integer> counts = new IdentityHashMap<>();
+        for (Bus bus : original) {
+            counts.merge(bus, 1, Integer::sum);
+        }
+        for (Bus bus : actual) {
+            counts.merge(bus, -1, Integer::sum);
+        }
+        assertTrue(counts.values().stream().allMatch(count -> count == 0), "массив - не перестановка исходного");
+    }
+}
@@ -5,9 +5,11 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.example.sortingApplication.domain.Bus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import static org.junit.jupiter.api.Assertions.*;
 
 class EvenTimSortStrategyTest {
@@ -238,4 +240,136 @@ class EvenTimSortStrategyTest {
         assertSame(busOdd1, result[2]);
         assertSame(negativeOdd, result[3]);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSortPermutation_OddAndNullPositionsFixed() {
+        Bus even40 = new Bus("C", "Mercedes", 40);
+        Bus even20 = new Bus("A", "Volvo", 20);
+        Bus odd31 = new Bus("B", "Audi", 31);
+        Bus even10 = new Bus("E", "BMW", 10);
+        Bus odd11 = new Bus("F", "Ford", 11);
+        Bus[] array = {even40, odd31, null, even20, odd11, even10};
+        Bus[] original = array.clone();
+
+        int[] permutation = mileageSorter.sortPermutation(array);
+
+        assertArrayEquals(original, array);
+        assertArrayEquals(new int[]{5, 1, 2, 3, 4, 0}, permutation);
+        assertArrayEquals(new Bus[]{even10, odd31, null, even20, odd11, even40},
+                SortStrategy.applyPermutation(array, permutation));
+    }
+
+    @Test
+    void testSortPermutation_SameResultAsSort() {
+        Random random = new Random(8);
+        Bus[] array = new Bus[3000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = new Bus("BUS" + i, "Model", random.nextInt(200));
+        }
+
+        Bus[] permuted = SortStrategy.applyPermutation(array, mileageSorter.sortPermutation(array));
+        Bus[] sorted = mileageSorter.sort(array.clone());
+        for (int i = 0; i < array.length; i++) {
+            assertSame(sorted[i], permuted[i], "index " + i);
+        }
+    }
+
+    @Test
+    void testSortPermutation_ConcurrentCallsOnOneInstance() throws InterruptedException {
+        // У каждого потока свой массив (больше порога параллельной обработки маски),
+        // экземпляр стратегии - общий
+        Bus[][] arrays = new Bus[4][];
+        Bus[][] expected = new Bus[arrays.length][];
+        for (int t = 0; t < arrays.length; t++) {
+            Random random = new Random(20 + t);
+            arrays[t] = new Bus[70_000 + 10_000 * t];
+            for (int i = 0; i < arrays[t].length; i++) {
+                arrays[t][i] = i % 1000 == 0 ? null : new Bus("BUS" + i, "Model", random.nextInt(1000));
+            }
+            expected[t] = new EvenTimSortStrategy(Comparator.comparingInt(Bus::getMileage)).sort(arrays[t].clone());
+        }
+
+        boolean[] failed = new boolean[arrays.length];
+        Thread[] threads = new Thread[arrays.length];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                for (int repeat = 0; repeat < 10; repeat++) {
+                    int[] permutation = mileageSorter.sortPermutation(arrays[index]);
+                    Bus[] result = SortStrategy.applyPermutation(arrays[index], permutation);
+                    failed[index] |= !Arrays.equals(expected[index], result);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int t = 0; t < failed.length; t++) {
+            assertFalse(failed[t], "thread " + t);
+        }
+    }
+
+    @Test
+    void testSort_LargeArrayInParallelChunks() {
+        Random random = new Random(16);
+        EvenTimSortStrategy sorter = new EvenTimSortStrategy(Comparator.comparingInt(Bus::getMileage));
+        // Повторная сортировка тем же экземпляром проверяет переиспользование буферов
+        for (int size : new int[]{200_000, 70_000, 300}) {
+            Bus[] array = new Bus[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = i % 1000 == 0 ? null : new Bus("BUS" + i, "Model", random.nextInt(500));
+            }
+            Bus[] original = array.clone();
+
+            List<Bus> expectedEvens = new ArrayList<>();
+            for (Bus bus : original) {
+                if (bus != null && bus.getMileage() % 2 == 0) {
+                    expectedEvens.add(bus);
+                }
+            }
+            expectedEvens.sort(Comparator.comparingInt(Bus::getMileage));
+
+            sorter.sort(array);
+            int next = 0;
+            for (int i = 0; i < size; i++) {
+                if (original[i] == null || original[i].getMileage() % 2 != 0) {
+                    assertSame(original[i], array[i], "size " + size + ", fixed position " + i);
+                } else {
+                    assertSame(expectedEvens.get(next++), array[i], "size " + size + ", even position " + i);
+                }
+            }
+            assertEquals(expectedEvens.size(), next);
+        }
+    }
+
+    @Test
+    void testSortWithControl_CancelLeavesArrayUnchanged() {
+        Random random = new Random(30);
+        Bus[] original = new Bus[300_000];
+        for (int i = 0; i < original.length; i++) {
+            original[i] = i % 1000 == 0 ? null : new Bus("BUS" + i, "Model", random.nextInt(1_000_000));
+        }
+        Bus[] array = original.clone();
+        SortControl[] holder = new SortControl[1];
+        holder[0] = new SortControl(null, (done, total) -> {
+            if (done * 2 > total) {
+                holder[0].cancel();
+            }
+        });
+        holder[0].start();
+
+        // отмена приходит из TimSort внутри; четные ещё не вернулись на места
+        SortCancelledException exception = assertThrows(SortCancelledException.class,
+                () -> mileageSorter.sort(array, holder[0]));
+        assertFalse(exception.isTimedOut());
+        for (int i = 0; i < original.length; i++) {
+            assertSame(original[i], array[i], "index " + i);
+        }
+
+        SortControl control = new SortControl(null, null);
+        control.start();
+        Bus[] expected = mileageSorter.sort(original.clone());
+        assertArrayEquals(expected, mileageSorter.sort(original.clone(), control));
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.sortingApplication.strategy;
+
+import static org.example.sortingApplication.strategy.BusFixtures.MODELS;
+import static org.example.sortingApplication.strategy.BusFixtures.assertPermutationOf;
+import static org.example.sortingApplication.strategy.BusFixtures.randomBuses;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+class InPlaceMergeSortStrategyTest {
+
+    private final Comparator<Bus> mileageComparator = Comparator.comparingInt(Bus::getMileage);
+
+    @Test
+    void testSort_NullAndSingleElement() {
+        InPlaceMergeSortStrategy sorter = new InPlaceMergeSortStrategy(mileageComparator);
+        assertNull(sorter.sort(null));
+        Bus bus = new Bus("A", "Volvo", 1);
+        assertSame(bus, sorter.sort(new Bus[]{bus})[0]);
+    }
+
+    @Test
+    void testSort_StableOnManyDuplicates() {
+        for (int size : new int[]{2, 17, 100, 1000, 30_000}) {
+            Bus[] buses = randomBuses(size, size, MODELS, 900, 9);
+            Bus[] expected = buses.clone();
+            Arrays.sort(expected, mileageComparator);
+
+            Bus[] result = new InPlaceMergeSortStrategy(mileageComparator).sort(buses);
+            for (int i = 0; i < size; i++) {
+                assertSame(expected[i], result[i], "size " + size + ", index " + i);
+            }
+        }
+    }
+
+    @Test
+    void testSort_LargeUnbalancedMergesUseRotations() {
+        // Длинные серии гарантируют слияния, где обе части больше буфера sqrt(n)
+        int size = 50_000;
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            buses[i] = new Bus("N" + i, "Model", (i * 7919) % 1000);
+        }
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, mileageComparator);
+
+        assertArrayEquals(expected, new InPlaceMergeSortStrategy(mileageComparator).sort(buses));
+    }
+
+    @Test
+    void testSort_ComparisonsCloseToTimSort() {
+        BusComparator comparator = new BusComparator("пробег", "модель", "номер");
+        Bus[] buses = randomBuses(100_000, 4, MODELS, 900, 999_999);
+
+        TimSortStrategy timSort = new TimSortStrategy(comparator, true);
+        timSort.sort(buses.clone());
+        InPlaceMergeSortStrategy inPlace = new InPlaceMergeSortStrategy(comparator);
+        inPlace.sort(buses.clone());
+
+        assertTrue(inPlace.getComparisonCount() < 2 * timSort.getComparisonCount(),
+                "in-place: " + inPlace.getComparisonCount() + ", TimSort: " + timSort.getComparisonCount());
+    }
+
+    @Test
+    void testGetDescription() {
+        assertEquals("Слияние на месте (стабильная, доп. память ~sqrt(n) ссылок)",
+                new InPlaceMergeSortStrategy(mileageComparator).getDescription());
+    }
+
+    @Test
+    void testSortWithControl_CancelMidwayLeavesPermutation() {
+        Bus[] original = randomBuses(100_000, 15, MODELS, 900, 999_999);
+        Bus[] array = original.clone();
+        SortControl[] holder = new SortControl[1];
+        holder[0] = new SortControl(null, (done, total) -> {
+            if (done * 2 > total) {
+                holder[0].cancel();
+            }
+        });
+        holder[0].start();
+
+        SortCancelledException exception = assertThrows(SortCancelledException.class,
+                () -> new InPlaceMergeSortStrategy(mileageComparator).sort(array, holder[0]));
+        assertFalse(exception.isTimedOut());
+        assertPermutationOf(original, array);
+    }
+
+    @Test
+    void testSortWithControl_SortsAndReportsTotal() {
+        Bus[] original = randomBuses(50_000, 16, MODELS, 900, 999);
+        Bus[] expected = original.clone();
+        Arrays.sort(expected, mileageComparator);
+        long[] last = {-1, -1};
+        SortControl control = new SortControl(null, (done, total) -> {
+            assertTrue(done >= last[0] && done <= total);
+            last[0] = done;
+            last[1] = total;
+        });
+        control.start();
+
+        Bus[] result = new InPlaceMergeSortStrategy(mileageComparator).sort(original.clone(), control);
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i], result[i], "index " + i);
+        }
+        assertEquals(last[1], last[0]);
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.sortingApplication.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.domain.BusCollection;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+class LazySortedViewTest {
+
+    private final Comparator<Bus> mileageComparator = Comparator.comparingInt(Bus::getMileage);
+
+    private static BusCollection randomCollection(int size, int mileageBound, Random random) {
+        BusCollection collection = new BusCollection();
+        for (int i = 0; i < size; i++) {
+            collection.add(new Bus("BUS" + i, "Volvo", random.nextInt(mileageBound)));
+        }
+        return collection;
+    }
+
+    private List<Bus> stableSorted(BusCollection collection) {
+        List<Bus> expected = new ArrayList<>(Arrays.asList(collection.toArray()));
+        expected.sort(mileageComparator);
+        return expected;
+    }
+
+    @Test
+    void testPage_FirstPageMatchesStableSort() {
+        BusCollection collection = randomCollection(10000, 1000000, new Random(1));
+        LazySortedView view = new LazySortedView(collection, mileageComparator);
+
+        List<Bus> page = view.page(0, 50);
+        assertEquals(stableSorted(collection).subList(0, 50), page);
+        assertTrue(view.getSortedCount() < 1000, "first page should not sort the whole collection");
+    }
+
+    @Test
+    void testPage_AllPagesInRandomOrderAreStable() {
+        BusCollection collection = randomCollection(5000, 50, new Random(2)); // много равных ключей
+        List<Bus> expected = stableSorted(collection);
+        LazySortedView view = new LazySortedView(collection, mileageComparator);
+
+        List<Integer> starts = new ArrayList<>();
+        for (int from = 0; from < 5000; from += 37) {
+            starts.add(from);
+        }
+        Collections.shuffle(starts, new Random(3));
+        for (int from : starts) {
+            List<Bus> page = view.page(from, 37);
+            for (int i = 0; i < page.size(); i++) {
+                assertSame(expected.get(from + i), page.get(i), "position " + (from + i));
+            }
+        }
+        assertEquals(5000, view.getSortedCount());
+    }
+
+    @Test
+    void testPage_AllPagesCostAboutFullSort() {
+        int n = 100000;
+        BusCollection collection = randomCollection(n, 1000000, new Random(4));
+        LazySortedView view = new LazySortedView(collection, mileageComparator);
+        for (int from = 0; from < n; from += 50) {
+            view.page(from, 50);
+        }
+
+        TimSortStrategy timSort = new TimSortStrategy(mileageComparator);
+        timSort.sort(collection.toArray());
+        assertTrue(view.getComparisonCount() < 1.5 * timSort.getComparisonCount(),
+                view.getComparisonCount() + " vs " + timSort.getComparisonCount());
+    }
+
+    @Test
+    void testPage_SortedAndReversedInput() {
+        BusCollection sorted = new BusCollection();
+        BusCollection reversed = new BusCollection();
+        for (int i = 0; i < 3000; i++) {
+            sorted.add(new Bus("S" + i, "MAN", i));
+            reversed.add(new Bus("R" + i, "MAN", 3000 - i));
+        }
+        assertEquals(stableSorted(sorted).subList(1500, 1600), new LazySortedView(sorted, mileageComparator).page(1500, 100));
+        assertEquals(stableSorted(reversed), new LazySortedView(reversed, mileageComparator).page(0, 3000));
+    }
+
+    @Test
+    void testGet_AndBounds() {
+        BusCollection collection = randomCollection(100, 1000, new Random(5));
+        List<Bus> expected = stableSorted(collection);
+        LazySortedView view = new LazySortedView(collection, mileageComparator);
+
+        assertSame(expected.get(99), view.get(99));
+        assertSame(expected.get(42), view.get(42));
+        assertEquals(expected.subList(90, 100), view.page(90, 50));
+        assertTrue(view.page(100, 10).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(100));
+        assertThrows(IllegalArgumentException.class, () -> view.page(-1, 10));
+    }
+
+    @Test
+    void testPage_DoesNotModifyCollection() {
+        BusCollection collection = randomCollection(500, 1000, new Random(6));
+        Bus[] before = collection.toArray();
+        new LazySortedView(collection, mileageComparator).page(0, 500);
+        assertArrayEquals(before, collection.toArray());
+    }
+
+    @Test
+    void testPage_EmptyCollection() {
+        LazySortedView view = new LazySortedView(new BusCollection(), mileageComparator);
+        assertEquals(0, view.size());
+        assertTrue(view.page(0, 50).isEmpty());
+    }
+}
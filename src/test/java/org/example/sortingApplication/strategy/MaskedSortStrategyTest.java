@@ -0,0 +1,141 @@
+package org.example.sortingApplication.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.example.sortingApplication.util.MileageKernels;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+class MaskedSortStrategyTest {
+
+    private final Comparator<Bus> mileageComparator = Comparator.comparingInt(Bus::getMileage);
+
+    private static Bus[] randomBuses(int size, Random random) {
+        String[] models = {"Volvo", "MAN", "Scania", "Iveco"};
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            buses[i] = new Bus("BUS" + i, models[random.nextInt(models.length)], random.nextInt(1000));
+        }
+        return buses;
+    }
+
+    /**
+     * Отмеченные элементы идут в порядке стабильной сортировки, остальные на своих местах
+     */
+    private void assertMaskedSorted(Bus[] original, Bus[] result, Predicate<Integer> marked) {
+        List<Bus> expected = new ArrayList<>();
+        for (int i = 0; i < original.length; i++) {
+            if (marked.test(i)) {
+                expected.add(original[i]);
+            }
+        }
+        expected.sort(mileageComparator);
+
+        int next = 0;
+        for (int i = 0; i < original.length; i++) {
+            if (marked.test(i)) {
+                assertSame(expected.get(next++), result[i], "marked position " + i);
+            } else {
+                assertSame(original[i], result[i], "fixed position " + i);
+            }
+        }
+    }
+
+    @Test
+    void testSort_PredicateModelLevel() {
+        Bus[] buses = randomBuses(1000, new Random(1));
+        Bus[] original = buses.clone();
+
+        new MaskedSortStrategy(bus -> bus.getModel().equals("Volvo"), new TimSortStrategy(mileageComparator))
+                .sort(buses);
+        assertMaskedSorted(original, buses, i -> original[i].getModel().equals("Volvo"));
+    }
+
+    @Test
+    void testSort_BitSetMaskIgnoresBitsPastEnd() {
+        Bus[] buses = randomBuses(300, new Random(2));
+        Bus[] original = buses.clone();
+        BitSet mask = new BitSet();
+        for (int i = 0; i < 400; i += 3) {
+            mask.set(i);
+        }
+
+        new MaskedSortStrategy(mask, new PdqSortStrategy(mileageComparator, true)).sort(buses);
+        assertMaskedSorted(original, buses, i -> i % 3 == 0);
+    }
+
+    @Test
+    void testSort_LargeArrayEvaluatesPredicateOncePerElement() {
+        Bus[] buses = randomBuses(200_000, new Random(3));
+        Bus[] original = buses.clone();
+        AtomicInteger calls = new AtomicInteger();
+        MaskedSortStrategy sorter = new MaskedSortStrategy(bus -> {
+            calls.incrementAndGet();
+            return bus.getMileage() < 300;
+        }, new TimSortStrategy(mileageComparator, true));
+
+        sorter.sort(buses);
+        assertEquals(buses.length, calls.get());
+        assertMaskedSorted(original, buses, i -> original[i].getMileage() < 300);
+
+        // Повторно тем же экземпляром на меньшем массиве
+        Bus[] small = randomBuses(100, new Random(4));
+        Bus[] smallOriginal = small.clone();
+        sorter.sort(small);
+        assertMaskedSorted(smallOriginal, small, i -> smallOriginal[i].getMileage() < 300);
+    }
+
+    @Test
+    void testSort_ColumnMaskMatchesPredicate() {
+        // больше порога параллельной обработки: маска по столбцу строится кусками
+        for (int size : new int[]{1000, 100_000 + 17}) {
+            Bus[] buses = randomBuses(size, new Random(7));
+            Bus[] original = buses.clone();
+
+            new MaskedSortStrategy(Bus::getMileage, MileageKernels.get()::evenMask,
+                    new TimSortStrategy(mileageComparator)).sort(buses);
+            assertMaskedSorted(original, buses, i -> original[i].getMileage() % 2 == 0);
+        }
+    }
+
+    @Test
+    void testSortPermutation_KeepsArrayAndMatchesSort() {
+        Bus[] buses = randomBuses(5000, new Random(5));
+        Bus[] original = buses.clone();
+        MaskedSortStrategy sorter = new MaskedSortStrategy(bus -> bus.getMileage() % 3 == 0,
+                new TimSortStrategy(new BusComparator("пробег", "модель", "номер")));
+
+        int[] permutation = sorter.sortPermutation(buses);
+        assertArrayEquals(original, buses);
+        assertArrayEquals(sorter.sort(buses.clone()), SortStrategy.applyPermutation(buses, permutation));
+    }
+
+    @Test
+    void testSortPermutation_InnerWithDefaultPermutation() {
+        // PdqSortStrategy не переопределяет sortPermutation - работает реализация SortStrategy
+        MaskedSortStrategy sorter = new MaskedSortStrategy(bus -> bus.getMileage() % 2 == 0,
+                new PdqSortStrategy(mileageComparator, true));
+        Bus[] buses = randomBuses(3000, new Random(6));
+        Bus[] original = buses.clone();
+
+        int[] permutation = sorter.sortPermutation(buses);
+        assertArrayEquals(original, buses);
+        assertArrayEquals(sorter.sort(buses.clone()), SortStrategy.applyPermutation(buses, permutation));
+    }
+
+    @Test
+    void testGetDescription() {
+        SortStrategy inner = new TimSortStrategy(mileageComparator);
+        assertEquals("Сортировка только отмеченных элементов (" + inner.getDescription() + ")",
+                new MaskedSortStrategy(bus -> true, inner).getDescription());
+    }
+}
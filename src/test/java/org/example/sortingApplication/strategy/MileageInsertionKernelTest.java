@@ -0,0 +1,76 @@
+package org.example.sortingApplication.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+class MileageInsertionKernelTest {
+
+    private final BusComparator comparator = new BusComparator("пробег", "модель", "номер");
+
+    private static Bus[] randomBuses(int size, int maxMileage, Random random) {
+        String[] models = {"Volvo", "MAN", "Scania"};
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            buses[i] = new Bus("N" + random.nextInt(10), models[random.nextInt(models.length)],
+                    random.nextInt(maxMileage));
+        }
+        return buses;
+    }
+
+    @Test
+    void testForComparator_OnlyWhenMileageIsPrimary() {
+        assertNotNull(MileageInsertionKernel.forComparator(comparator));
+        assertNull(MileageInsertionKernel.forComparator(new BusComparator("модель", "пробег", null)));
+        assertNull(MileageInsertionKernel.forComparator(Comparator.comparingInt(Bus::getMileage)));
+    }
+
+    @Test
+    void testSort_MatchesStableSort() {
+        MileageInsertionKernel kernel = MileageInsertionKernel.forComparator(comparator);
+        Random random = new Random(11);
+        for (int round = 0; round < 500; round++) {
+            int size = 1 + random.nextInt(MileageInsertionKernel.MAX_LENGTH);
+            Bus[] buses = randomBuses(size, round % 2 == 0 ? 5 : 1_000_000, random);
+            Bus[] expected = buses.clone();
+            Arrays.sort(expected, comparator);
+
+            kernel.sort(buses, 0, size, 0);
+            for (int i = 0; i < size; i++) {
+                assertSame(expected[i], buses[i], "round " + round + ", index " + i);
+            }
+        }
+    }
+
+    @Test
+    void testSort_SortedPrefixAndOffset() {
+        MileageInsertionKernel kernel = MileageInsertionKernel.forComparator(comparator);
+        Bus[] buses = randomBuses(40, 8, new Random(3));
+        Arrays.sort(buses, 5, 15, comparator);
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, 5, 35, comparator);
+
+        kernel.sort(buses, 5, 35, 15);
+        assertArrayEquals(expected, buses);
+    }
+
+    @Test
+    void testSort_ComparatorOnlyForEqualMileage() {
+        MileageInsertionKernel kernel = MileageInsertionKernel.forComparator(comparator);
+        Bus[] buses = new Bus[32];
+        for (int i = 0; i < buses.length; i++) {
+            buses[i] = new Bus("N" + i, "Volvo", (i * 17) % 32);
+        }
+
+        assertEquals(0, kernel.sort(buses, 0, buses.length, 0));
+        for (int i = 0; i < buses.length; i++) {
+            assertEquals(i, buses[i].getMileage());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.sortingApplication.strategy;
+
+import static org.example.sortingApplication.strategy.BusFixtures.MODELS;
+import static org.example.sortingApplication.strategy.BusFixtures.assertPermutationOf;
+import static org.example.sortingApplication.strategy.BusFixtures.randomBuses;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class MileageRadixSortStrategyTest {
+
+    @Test
+    void testSort_NullAndSingleElement() {
+        MileageRadixSortStrategy sorter = new MileageRadixSortStrategy(new BusComparator("пробег", "номер", "модель"));
+        assertNull(sorter.sort(null));
+        Bus bus = new Bus("A", "Volvo", 1);
+        assertSame(bus, sorter.sort(new Bus[]{bus})[0]);
+    }
+
+    @Test
+    void testSort_MatchesStableSortWithTieBreakFields() {
+        BusComparator comparator = new BusComparator("пробег", "модель", "номер");
+        MileageRadixSortStrategy sorter = new MileageRadixSortStrategy(comparator);
+        for (int maxMileage : new int[]{0, 50, 1_000_000}) {
+            Bus[] buses = randomBuses(5000, maxMileage, MODELS, 900, maxMileage);
+            Bus[] expected = buses.clone();
+            Arrays.sort(expected, comparator);
+
+            Bus[] result = sorter.sort(buses);
+            for (int i = 0; i < expected.length; i++) {
+                assertSame(expected[i], result[i], "maxMileage=" + maxMileage + ", index=" + i);
+            }
+        }
+    }
+
+    @Test
+    void testSort_StableWhenOnlyMileageIsCompared() {
+        // Одно поле - равные пробеги должны сохранить исходный порядок
+        BusComparator comparator = new BusComparator("пробег", null, null);
+        Bus[] buses = randomBuses(1000, 1, MODELS, 900, 10);
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, (a, b) -> Integer.compare(a.getMileage(), b.getMileage()));
+
+        Bus[] result = new MileageRadixSortStrategy(comparator).sort(buses);
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i], result[i]);
+        }
+    }
+
+    @Test
+    void testSort_NegativeAndLargeMileage() {
+        BusComparator comparator = new BusComparator("пробег", "номер", "модель");
+        Bus[] buses = new Bus[200];
+        for (int i = 0; i < buses.length; i++) {
+            int mileage = i % 3 == 0 ? Integer.MIN_VALUE + i : (i % 3 == 1 ? Integer.MAX_VALUE - i : -i);
+            buses[i] = new Bus("N" + i, "Model", mileage);
+        }
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, comparator);
+
+        assertArrayEquals(expected, new MileageRadixSortStrategy(comparator).sort(buses));
+    }
+
+    @Test
+    void testSort_FallsBackToTimSortForOtherPrimaryField() {
+        BusComparator comparator = new BusComparator("модель", "пробег", "номер");
+        Bus[] buses = randomBuses(500, 2, MODELS, 900, 1000);
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, comparator);
+
+        assertArrayEquals(expected, new MileageRadixSortStrategy(comparator).sort(buses));
+    }
+
+    @Test
+    void testGetDescription() {
+        assertEquals("Поразрядная сортировка по пробегу (LSD radix, стабильная)",
+                new MileageRadixSortStrategy(new BusComparator("пробег", "номер", "модель")).getDescription());
+    }
+
+    @Test
+    void testSortWithControl_CancelBetweenPassesLeavesPermutation() {
+        // 200 000 автобусов и пробег до 2^30: три прохода, отмена после второго - результат в буфере
+        Bus[] original = randomBuses(200_000, 9, MODELS, 900, (1 << 30) - 1);
+        Bus[] array = original.clone();
+        SortControl[] holder = new SortControl[1];
+        holder[0] = new SortControl(null, (done, total) -> {
+            if (done * 2 > total) {
+                holder[0].cancel();
+            }
+        });
+        holder[0].start();
+
+        SortCancelledException exception = assertThrows(SortCancelledException.class,
+                () -> new MileageRadixSortStrategy(new BusComparator("пробег", "номер", "модель")).sort(array, holder[0]));
+        assertFalse(exception.isTimedOut());
+        assertPermutationOf(original, array);
+    }
+
+    @Test
+    void testSortWithControl_SortsAndReportsTotal() {
+        BusComparator comparator = new BusComparator("пробег", "номер", "модель");
+        Bus[] original = randomBuses(100_000, 10, MODELS, 900, 1_000_000);
+        Bus[] expected = original.clone();
+        Arrays.sort(expected, comparator);
+        long[] last = {-1, -1};
+        SortControl control = new SortControl(null, (done, total) -> {
+            assertTrue(done >= last[0] && done <= total);
+            last[0] = done;
+            last[1] = total;
+        });
+        control.start();
+
+        Bus[] result = new MileageRadixSortStrategy(comparator).sort(original.clone(), control);
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i], result[i], "index " + i);
+        }
+        assertEquals(last[1], last[0]);
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.sortingApplication.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class NormalizedKeySortStrategyTest {
+
+    private static Bus[] fleet(int size, long seed) {
+        Random random = new Random(seed);
+        String[] models = {"Mercedes", "Volvo", "MAN", "man", "ЛиАЗ", "Scania"};
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            buses[i] = new Bus((random.nextBoolean() ? "AB" : "ab") + (100 + random.nextInt(200)),
+                    models[random.nextInt(models.length)], random.nextInt(50));
+        }
+        return buses;
+    }
+
+    @Test
+    void testSort_NullAndEmptyArrays() {
+        NormalizedKeySortStrategy sorter = new NormalizedKeySortStrategy(new BusComparator("номер", "модель", "пробег"));
+        assertNull(sorter.sort(null));
+        assertEquals(0, sorter.sort(new Bus[0]).length);
+    }
+
+    @Test
+    void testSort_MatchesStableSortForEveryFieldOrder() {
+        String[][] orders = {
+                {"номер", "модель", "пробег"},
+                {"модель", "пробег", "номер"},
+                {"пробег", "номер", "модель"}
+        };
+        for (String[] order : orders) {
+            for (boolean caseSensitive : new boolean[]{true, false}) {
+                BusComparator comparator = new BusComparator(order[0], order[1], order[2], caseSensitive);
+                Bus[] buses = fleet(4000, order[0].hashCode());
+                Bus[] expected = buses.clone();
+                Arrays.sort(expected, comparator);
+
+                Bus[] result = new NormalizedKeySortStrategy(comparator).sort(buses);
+                for (int i = 0; i < expected.length; i++) {
+                    assertSame(expected[i], result[i], Arrays.toString(order) + " index " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSort_FewerFieldsThanThree() {
+        // InitComparator оставляет незаданные поля пустыми - равные по заданным полям сохраняют порядок
+        Bus[] buses = fleet(1000, 3);
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, (a, b) -> Integer.compare(a.getMileage(), b.getMileage()));
+
+        Bus[] result = new NormalizedKeySortStrategy(new BusComparator("пробег", null, null)).sort(buses);
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i], result[i]);
+        }
+    }
+
+    @Test
+    void testGetDescription() {
+        assertEquals("Сортировка по нормализованным байтовым ключам (MSD radix)",
+                new NormalizedKeySortStrategy(new BusComparator("номер", "модель", "пробег")).getDescription());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.sortingApplication.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class ParallelMergeTest {
+
+    private final Comparator<Bus> mileageComparator = Comparator.comparingInt(Bus::getMileage);
+
+    /**
+     * Две отсортированные половины с большим количеством равных пробегов
+     */
+    private Bus[] twoSortedHalves(int n1, int n2, long seed) {
+        Random random = new Random(seed);
+        Bus[] src = new Bus[n1 + n2];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = new Bus("BUS" + i, "Model", random.nextInt(100));
+        }
+        Arrays.sort(src, 0, n1, mileageComparator);
+        Arrays.sort(src, n1, n1 + n2, mileageComparator);
+        return src;
+    }
+
+    @Test
+    void testCoRank_MatchesSequentialMerge() {
+        int n1 = 300;
+        int n2 = 200;
+        Bus[] src = twoSortedHalves(n1, n2, 3);
+
+        // Последовательное стабильное слияние: запоминаем, сколько левых элементов среди первых k
+        int[] leftTaken = new int[n1 + n2 + 1];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < n1 + n2; k++) {
+            leftTaken[k] = i;
+            if (j >= n2 || (i < n1 && src[i].getMileage() <= src[n1 + j].getMileage())) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        leftTaken[n1 + n2] = n1;
+
+        for (int k = 0; k <= n1 + n2; k++) {
+            assertEquals(leftTaken[k], ParallelMerge.coRank(mileageComparator, src, 0, n1, n1, n2, k), "k=" + k);
+        }
+    }
+
+    @Test
+    void testMerge_StableAndIndependentOfPartCount() {
+        int n1 = 30_000;
+        int n2 = 20_000;
+        Bus[] src = twoSortedHalves(n1, n2, 5);
+        Bus[] expected = src.clone();
+        Arrays.sort(expected, mileageComparator); // стабильная сортировка = стабильное слияние
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int parts : new int[]{1, 2, 3, 7, 16}) {
+                Bus[] dst = new Bus[n1 + n2];
+                pool.invoke(new ParallelMerge(mileageComparator, src, 0, n1, n1, n1 + n2, dst, 0, parts));
+                for (int k = 0; k < dst.length; k++) {
+                    assertSame(expected[k], dst[k], "parts=" + parts + ", index=" + k);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testMerge_OneSideEmpty() {
+        Bus[] src = twoSortedHalves(10_000, 0, 9);
+        Bus[] dst = new Bus[src.length];
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            pool.invoke(new ParallelMerge(mileageComparator, src, 0, src.length, src.length, src.length,
+                    dst, 0, 4));
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(src, dst);
+    }
+}
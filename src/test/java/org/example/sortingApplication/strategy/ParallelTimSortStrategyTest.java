@@ -0,0 +1,146 @@
+package org.example.sortingApplication.strategy;
+
+import static org.example.sortingApplication.strategy.BusFixtures.MODELS;
+import static org.example.sortingApplication.strategy.BusFixtures.assertPermutationOf;
+import static org.example.sortingApplication.strategy.BusFixtures.randomBuses;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ParallelTimSortStrategyTest {
+
+    private final Comparator<Bus> comparator = new BusComparator("модель", "пробег", "номер");
+
+    @Test
+    void testSort_NullAndEmptyArrays() {
+        ParallelTimSortStrategy sorter = new ParallelTimSortStrategy(comparator, 2);
+        assertNull(sorter.sort(null));
+        assertEquals(0, sorter.sort(new Bus[0]).length);
+        sorter.close();
+    }
+
+    @Test
+    void testSort_SameResultAsTimSortForAnyThreadCount() {
+        Bus[] original = randomBuses(20_000, 1, MODELS, 50, 19);
+        Bus[] expected = new TimSortStrategy(comparator, true).sort(original.clone());
+
+        for (int threads : new int[]{1, 2, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                // маленький порог, чтобы дерево слияний было глубоким
+                ParallelTimSortStrategy sorter = new ParallelTimSortStrategy(comparator, pool, 100);
+                Bus[] result = sorter.sort(original.clone());
+                for (int i = 0; i < expected.length; i++) {
+                    assertSame(expected[i], result[i], "threads=" + threads + ", index=" + i);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void testSort_OddSizesAndRepeatedSorts() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelTimSortStrategy sorter = new ParallelTimSortStrategy(comparator, pool, 64);
+            for (int size : new int[]{65, 129, 1000, 3333}) {
+                Bus[] original = randomBuses(size, size, MODELS, 50, 19);
+                Bus[] expected = new TimSortStrategy(comparator, true).sort(original.clone());
+                assertArrayEquals(expected, sorter.sort(original.clone()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsTooSmallCutoff() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new ParallelTimSortStrategy(comparator, pool, 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testClose_ShutsDownOnlyOwnPool() {
+        ParallelTimSortStrategy owning = new ParallelTimSortStrategy(comparator, 2);
+        owning.close();
+        assertTrue(owning.getPool().isShutdown());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try (ParallelTimSortStrategy sorter = new ParallelTimSortStrategy(comparator, pool, 100)) {
+            sorter.sort(randomBuses(1000, 2, MODELS, 50, 19));
+        }
+        assertFalse(pool.isShutdown());
+        pool.shutdown();
+    }
+
+    @Test
+    void testGetDescription() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ParallelTimSortStrategy sorter = new ParallelTimSortStrategy(comparator, pool, 100);
+        assertEquals("Параллельный TimSort (fork/join, потоков: 3)", sorter.getDescription());
+        pool.shutdown();
+    }
+
+    @Test
+    void testSortWithControl_CancelInsideTasksLeavesPermutation() {
+        Bus[] original = randomBuses(50_000, 7, MODELS, 50, 19);
+        Bus[] array = original.clone();
+        SortControl control = new SortControl(null, null);
+        control.start();
+        AtomicInteger comparisons = new AtomicInteger();
+        // отмена приходит, когда часть задач уже отсортирована, а часть ещё нет
+        Comparator<Bus> cancelling = (a, b) -> {
+            if (comparisons.incrementAndGet() == 100_000) {
+                control.cancel();
+            }
+            return comparator.compare(a, b);
+        };
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ParallelTimSortStrategy sorter = new ParallelTimSortStrategy(cancelling, pool, 500);
+            SortCancelledException exception = assertThrows(SortCancelledException.class,
+                    () -> sorter.sort(array, control));
+            assertFalse(exception.isTimedOut());
+            assertPermutationOf(original, array);
+            assertTrue(comparisons.get() < 200_000, "после отмены сортировка не продолжается: " + comparisons.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSortWithControl_SortsAndReportsTotal() {
+        Bus[] original = randomBuses(20_000, 8, MODELS, 50, 19);
+        Bus[] expected = new TimSortStrategy(comparator, true).sort(original.clone());
+        long[] last = {-1, -1};
+        SortControl control = new SortControl(Duration.ofMinutes(5), (done, total) -> {
+            last[0] = done;
+            last[1] = total;
+        });
+        control.start();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Bus[] result = new ParallelTimSortStrategy(comparator, pool, 500).sort(original.clone(), control);
+            for (int i = 0; i < expected.length; i++) {
+                assertSame(expected[i], result[i], "index " + i);
+            }
+            assertEquals(expected.length, last[0]);
+            assertEquals(expected.length, last[1]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
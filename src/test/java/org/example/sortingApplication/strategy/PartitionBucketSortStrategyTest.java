@@ -0,0 +1,138 @@
+package org.example.sortingApplication.strategy;
+
+import static org.example.sortingApplication.strategy.BusFixtures.assertPermutationOf;
+import static org.example.sortingApplication.strategy.BusFixtures.assertStableSorted;
+import static org.example.sortingApplication.strategy.BusFixtures.randomBuses;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class PartitionBucketSortStrategyTest {
+
+    // модели, различающиеся только регистром, попадают в разные корзины или в одну
+    private static final String[] MODELS = {"Mercedes", "Volvo", "MAN", "man", "Scania", "ЛиАЗ", "лиаз"};
+
+    @Test
+    void testSort_NullAndEmptyArrays() {
+        PartitionBucketSortStrategy sorter = new PartitionBucketSortStrategy(
+                new BusComparator("модель", "пробег", "номер"), ForkJoinPool.commonPool());
+        assertNull(sorter.sort(null));
+        assertEquals(0, sorter.sort(new Bus[0]).length);
+    }
+
+    @Test
+    void testSort_ModelBucketsForAnyThreadCount() {
+        for (boolean caseSensitive : new boolean[]{true, false}) {
+            BusComparator comparator = new BusComparator("модель", "пробег", "номер", caseSensitive);
+            for (int threads : new int[]{1, 2, 4}) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                Bus[] original = randomBuses(100_000, threads, MODELS, 50, 19);
+                PartitionBucketSortStrategy sorter = new PartitionBucketSortStrategy(comparator, pool);
+
+                assertStableSorted(comparator, original, sorter.sort(original.clone()));
+                // без учёта регистра "MAN" и "man" попадают в одну корзину
+                assertEquals(caseSensitive ? 7 : 5, sorter.getLastBucketCount());
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void testSort_SingleFieldKeepsInputOrderInsideBuckets() {
+        BusComparator comparator = new BusComparator("модель", null, null);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        Bus[] original = randomBuses(50_000, 7, MODELS, 50, 19);
+        Bus[] expected = original.clone();
+        Arrays.sort(expected, (a, b) -> a.getModel().compareTo(b.getModel()));
+
+        assertArrayEquals(expected, new PartitionBucketSortStrategy(comparator, pool).sort(original.clone()));
+        pool.shutdown();
+    }
+
+    @Test
+    void testSort_ManyDistinctKeysFallsBackToParallelTimSort() {
+        BusComparator comparator = new BusComparator("пробег", "модель", "номер");
+        Random random = new Random(3);
+        Bus[] original = new Bus[50_000];
+        for (int i = 0; i < original.length; i++) {
+            original[i] = new Bus("AB" + i, "Volvo", random.nextInt(1_000_000));
+        }
+        ForkJoinPool pool = new ForkJoinPool(2);
+        PartitionBucketSortStrategy sorter = new PartitionBucketSortStrategy(comparator, pool);
+
+        assertStableSorted(comparator, original, sorter.sort(original.clone()));
+        assertEquals(0, sorter.getLastBucketCount());
+        pool.shutdown();
+    }
+
+    @Test
+    void testSort_MileageBuckets() {
+        BusComparator comparator = new BusComparator("пробег", "номер", "модель");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        Bus[] original = randomBuses(40_000, 5, MODELS, 50, 19);
+        PartitionBucketSortStrategy sorter = new PartitionBucketSortStrategy(comparator, pool);
+
+        assertStableSorted(comparator, original, sorter.sort(original.clone()));
+        assertEquals(20, sorter.getLastBucketCount());
+        pool.shutdown();
+    }
+
+    @Test
+    void testSort_SmallArrayUsesTimSort() {
+        BusComparator comparator = new BusComparator("модель", "пробег", "номер");
+        Bus[] original = randomBuses(500, 9, MODELS, 50, 19);
+        PartitionBucketSortStrategy sorter = new PartitionBucketSortStrategy(comparator, ForkJoinPool.commonPool());
+
+        assertStableSorted(comparator, original, sorter.sort(original.clone()));
+        assertEquals(0, sorter.getLastBucketCount());
+    }
+
+    @Test
+    void testGetDescription() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        assertEquals("Раскладка по значениям первого поля и параллельная сортировка корзин (потоков: 3)",
+                new PartitionBucketSortStrategy(new BusComparator("модель", "пробег", "номер"), pool).getDescription());
+        pool.shutdown();
+    }
+
+    @Test
+    void testSortWithControl_DeadlineLeavesInputUntouched() {
+        Bus[] original = randomBuses(100_000, 17, MODELS, 50, 19);
+        Bus[] array = original.clone();
+        SortControl control = new SortControl(Duration.ZERO, null);
+        control.start();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            PartitionBucketSortStrategy sorter = new PartitionBucketSortStrategy(
+                    new BusComparator("модель", "пробег", "номер"), pool);
+            SortCancelledException exception = assertThrows(SortCancelledException.class,
+                    () -> sorter.sort(array, control));
+            assertTrue(exception.isTimedOut());
+            assertPermutationOf(original, array);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSortWithControl_SortsLikeWithoutControl() {
+        BusComparator comparator = new BusComparator("модель", "пробег", "номер");
+        Bus[] original = randomBuses(100_000, 18, MODELS, 50, 19);
+        SortControl control = new SortControl(Duration.ofMinutes(5), null);
+        control.start();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertStableSorted(comparator, original,
+                    new PartitionBucketSortStrategy(comparator, pool).sort(original.clone(), control));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
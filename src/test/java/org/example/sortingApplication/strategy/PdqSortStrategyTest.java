@@ -0,0 +1,130 @@
+package org.example.sortingApplication.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Random;
+
+class PdqSortStrategyTest {
+
+    private final Comparator<Bus> mileageComparator = Comparator.comparingInt(Bus::getMileage);
+
+    private static Bus[] pattern(String name, int size, Random random) {
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            int mileage;
+            switch (name) {
+                case "sorted":
+                    mileage = i;
+                    break;
+                case "reverse":
+                    mileage = size - i;
+                    break;
+                case "organ":
+                    mileage = i < size / 2 ? i : size - i;
+                    break;
+                case "sawtooth":
+                    mileage = i % 64;
+                    break;
+                case "equal":
+                    mileage = 7;
+                    break;
+                case "fewUnique":
+                    mileage = random.nextInt(4);
+                    break;
+                default:
+                    mileage = random.nextInt(1_000_000);
+            }
+            buses[i] = new Bus("N" + i, "Model", mileage);
+        }
+        return buses;
+    }
+
+    @Test
+    void testSort_NullAndSingleElement() {
+        PdqSortStrategy sorter = new PdqSortStrategy(mileageComparator);
+        assertNull(sorter.sort(null));
+        Bus bus = new Bus("A", "Volvo", 1);
+        assertSame(bus, sorter.sort(new Bus[]{bus})[0]);
+    }
+
+    @Test
+    void testSort_UnstableModeSortsEveryPattern() {
+        Random random = new Random(1);
+        String[] patterns = {"random", "sorted", "reverse", "organ", "sawtooth", "equal", "fewUnique"};
+        for (String name : patterns) {
+            for (int size : new int[]{2, 23, 24, 129, 1000, 20_000}) {
+                Bus[] buses = pattern(name, size, random);
+                Bus[] expected = buses.clone();
+                Arrays.sort(expected, mileageComparator);
+
+                Bus[] result = new PdqSortStrategy(mileageComparator).sort(buses);
+                for (int i = 0; i < size; i++) {
+                    assertEquals(expected[i].getMileage(), result[i].getMileage(), name + " size " + size);
+                }
+                assertEquals(new HashSet<>(Arrays.asList(expected)), new HashSet<>(Arrays.asList(result)));
+            }
+        }
+    }
+
+    @Test
+    void testSort_StableModeKeepsOrderOfEqualBuses() {
+        Random random = new Random(2);
+        for (String name : new String[]{"random", "fewUnique", "equal", "sawtooth"}) {
+            Bus[] buses = pattern(name, 5000, random);
+            Bus[] expected = buses.clone();
+            Arrays.sort(expected, mileageComparator);
+
+            Bus[] result = new PdqSortStrategy(mileageComparator, true).sort(buses);
+            for (int i = 0; i < expected.length; i++) {
+                assertSame(expected[i], result[i], name + " index " + i);
+            }
+        }
+    }
+
+    @Test
+    void testSort_WithBusComparator() {
+        BusComparator comparator = new BusComparator("модель", "пробег", "номер");
+        Random random = new Random(3);
+        String[] models = {"Mercedes", "Volvo", "MAN"};
+        Bus[] buses = new Bus[3000];
+        for (int i = 0; i < buses.length; i++) {
+            buses[i] = new Bus("AB" + random.nextInt(100), models[random.nextInt(models.length)], random.nextInt(30));
+        }
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, comparator);
+
+        assertArrayEquals(expected, new PdqSortStrategy(comparator, true).sort(buses));
+    }
+
+    @Test
+    void testSortPermutation_DefaultMapsSortedCopyBackToIndices() {
+        Random random = new Random(8);
+        Bus[] buses = new Bus[2000];
+        for (int i = 0; i < buses.length; i++) {
+            // каждый пятый элемент - тот же объект, что и предыдущий
+            buses[i] = i % 5 == 4 ? buses[i - 1] : new Bus("AB" + i, "Volvo", random.nextInt(100));
+        }
+        Bus[] original = buses.clone();
+        PdqSortStrategy sorter = new PdqSortStrategy(mileageComparator);
+
+        int[] permutation = sorter.sortPermutation(buses);
+        assertArrayEquals(original, buses);
+        assertEquals(buses.length, Arrays.stream(permutation).distinct().count());
+        assertArrayEquals(sorter.sort(buses.clone()), SortStrategy.applyPermutation(buses, permutation));
+    }
+
+    @Test
+    void testGetDescription() {
+        assertEquals("Pattern-defeating quicksort (стабильный режим)",
+                new PdqSortStrategy(mileageComparator, true).getDescription());
+        assertEquals("Pattern-defeating quicksort (нестабильная, быстрее TimSort на случайных данных)",
+                new PdqSortStrategy(mileageComparator).getDescription());
+    }
+}
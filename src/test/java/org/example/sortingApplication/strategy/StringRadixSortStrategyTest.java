@@ -0,0 +1,120 @@
+package org.example.sortingApplication.strategy;
+
+import static org.example.sortingApplication.strategy.BusFixtures.assertPermutationOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.example.sortingApplication.util.BusComparator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+class StringRadixSortStrategyTest {
+
+    private static Bus[] fleet(int size, long seed, String[] models) {
+        Random random = new Random(seed);
+        Bus[] buses = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            // длинный общий префикс и разный регистр
+            String prefix = random.nextBoolean() ? "AB" : "ab";
+            String number = prefix + (100 + random.nextInt(300)) + (random.nextInt(4) == 0 ? "X" : "");
+            buses[i] = new Bus(number, models[random.nextInt(models.length)], random.nextInt(100));
+        }
+        return buses;
+    }
+
+    private static void assertSortedLike(BusComparator comparator, Bus[] buses) {
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, comparator);
+        Bus[] result = new StringRadixSortStrategy(comparator).sort(buses);
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i], result[i], "index " + i);
+        }
+    }
+
+    @Test
+    void testSort_NullAndSingleElement() {
+        StringRadixSortStrategy sorter = new StringRadixSortStrategy(new BusComparator("номер", "модель", "пробег"));
+        assertNull(sorter.sort(null));
+        Bus bus = new Bus("A", "Volvo", 1);
+        assertSame(bus, sorter.sort(new Bus[]{bus})[0]);
+    }
+
+    @Test
+    void testSort_ByNumberCaseSensitive() {
+        String[] models = {"Mercedes", "Volvo", "MAN"};
+        assertSortedLike(new BusComparator("номер", "модель", "пробег", true), fleet(3000, 1, models));
+    }
+
+    @Test
+    void testSort_ByNumberCaseInsensitive() {
+        String[] models = {"Mercedes", "Volvo", "MAN"};
+        assertSortedLike(new BusComparator("номер", "пробег", "модель", false), fleet(3000, 2, models));
+    }
+
+    @Test
+    void testSort_ByModelWithNonLatinCharacters() {
+        // Кириллица и символы, регистр которых меняется за пределами Latin-1
+        String[] models = {"ЛиАЗ", "лиаз", "ПАЗ", "MAN", "man", "µBus", "ΜBUS", "Ÿ-Bus", "ÿ-bus", ""};
+        assertSortedLike(new BusComparator("модель", "номер", "пробег", false), fleet(2000, 3, models));
+        assertSortedLike(new BusComparator("модель", "номер", "пробег", true), fleet(2000, 4, models));
+    }
+
+    @Test
+    void testSort_StableWithoutTieBreakFields() {
+        String[] models = {"Mercedes", "Volvo", "MAN", "Mercedes-Benz"};
+        Bus[] buses = fleet(1000, 5, models);
+        Bus[] expected = buses.clone();
+        Arrays.sort(expected, (a, b) -> a.getModel().compareTo(b.getModel()));
+
+        Bus[] result = new StringRadixSortStrategy(new BusComparator("модель", null, null)).sort(buses);
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i], result[i]);
+        }
+    }
+
+    @Test
+    void testSort_FallsBackToTimSortForMileage() {
+        String[] models = {"Mercedes", "Volvo"};
+        assertSortedLike(new BusComparator("пробег", "номер", "модель"), fleet(500, 6, models));
+    }
+
+    @Test
+    void testGetDescription() {
+        assertEquals("Поразрядная сортировка по строковому полю (MSD radix, стабильная)",
+                new StringRadixSortStrategy(new BusComparator("номер", "модель", "пробег")).getDescription());
+    }
+
+    @Test
+    void testSortWithControl_CancelMidwayLeavesPermutation() {
+        Bus[] original = fleet(200_000, 11, new String[]{"Mercedes", "Volvo", "MAN"});
+        Bus[] array = original.clone();
+        SortControl[] holder = new SortControl[1];
+        holder[0] = new SortControl(null, (done, total) -> {
+            if (done * 2 > total) {
+                holder[0].cancel();
+            }
+        });
+        holder[0].start();
+
+        SortCancelledException exception = assertThrows(SortCancelledException.class,
+                () -> new StringRadixSortStrategy(new BusComparator("номер", "модель", "пробег")).sort(array, holder[0]));
+        assertFalse(exception.isTimedOut());
+        assertPermutationOf(original, array);
+    }
+
+    @Test
+    void testSortWithControl_DeadlineLeavesPermutation() {
+        Bus[] original = fleet(50_000, 12, new String[]{"Mercedes", "Volvo", "MAN"});
+        Bus[] array = original.clone();
+        SortControl control = new SortControl(Duration.ZERO, null);
+        control.start();
+
+        SortCancelledException exception = assertThrows(SortCancelledException.class,
+                () -> new StringRadixSortStrategy(new BusComparator("модель", "номер", "пробег")).sort(array, control));
+        assertTrue(exception.isTimedOut());
+        assertPermutationOf(original, array);
+    }
+}
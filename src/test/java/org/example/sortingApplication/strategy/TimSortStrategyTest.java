@@ -1,11 +1,16 @@
 package org.example.sortingApplication.strategy;
 
+import static org.example.sortingApplication.strategy.BusFixtures.assertPermutationOf;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.example.sortingApplication.util.BusComparator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 import org.example.sortingApplication.domain.Bus;
 
 class TimSortStrategyTest {
@@ -256,4 +261,309 @@ class TimSortStrategyTest {
         assertEquals(20000, result[2].getMileage()); // bus3 или bus6
         assertEquals(30000, result[3].getMileage()); // bus1
     }
-}
\ No newline at end of file
+
+    // Тесты режима естественных серий
+
+    private static Comparator<Bus> countingMileage(AtomicLong counter) {
+        return (a, b) -> {
+            counter.incrementAndGet();
+            return Integer.compare(a.getMileage(), b.getMileage());
+        };
+    }
+
+    @Test
+    void testNaturalRuns_SortedInputIsLinear() {
+        int size = 10_000;
+        Bus[] array = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = new Bus("BUS" + i, "Model", i);
+        }
+        AtomicLong counter = new AtomicLong();
+        new TimSortStrategy(countingMileage(counter), true).sort(array);
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, array[i].getMileage());
+        }
+        assertEquals(size - 1, counter.get());
+    }
+
+    @Test
+    void testNaturalRuns_ReverseSortedInputIsLinear() {
+        int size = 10_000;
+        Bus[] array = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = new Bus("BUS" + i, "Model", size - 1 - i);
+        }
+        AtomicLong counter = new AtomicLong();
+        new TimSortStrategy(countingMileage(counter), true).sort(array);
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, array[i].getMileage());
+        }
+        assertEquals(size - 1, counter.get());
+    }
+
+    @Test
+    void testNaturalRuns_MatchesStableSortOnRandomData() {
+        Random random = new Random(42);
+        Comparator<Bus> comparator = new BusComparator("пробег", "модель", "номер");
+        for (int size : new int[]{2, 31, 32, 33, 100, 1000, 5000}) {
+            Bus[] array = new Bus[size];
+            for (int i = 0; i < size; i++) {
+                // мало различных значений - много равных элементов для проверки стабильности
+                array[i] = new Bus("BUS" + i, "M" + random.nextInt(3), random.nextInt(50));
+            }
+            Bus[] expected = array.clone();
+            Arrays.sort(expected, Comparator.comparingInt(Bus::getMileage));
+
+            new TimSortStrategy(Comparator.comparingInt(Bus::getMileage), true).sort(array);
+            for (int i = 0; i < size; i++) {
+                assertSame(expected[i], array[i]);
+            }
+
+            Bus[] expectedFull = array.clone();
+            Arrays.sort(expectedFull, comparator);
+            new TimSortStrategy(comparator, true).sort(array);
+            assertArrayEquals(expectedFull, array);
+        }
+    }
+
+    @Test
+    void testNaturalRuns_PartiallySortedInput() {
+        // Несколько длинных серий вперемешку с убывающими
+        int size = 3000;
+        Bus[] array = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            int block = i / 500;
+            int mileage = block % 2 == 0 ? i : 10_000 - i;
+            array[i] = new Bus("BUS" + i, "Model", mileage);
+        }
+        Bus[] expected = array.clone();
+        Arrays.sort(expected, Comparator.comparingInt(Bus::getMileage));
+
+        new TimSortStrategy(Comparator.comparingInt(Bus::getMileage), true).sort(array);
+        assertArrayEquals(expected, array);
+    }
+
+    @Test
+    void testMerge_GallopingOnClusteredData() {
+        // Обе части состоят из чередующихся блоков по 500 элементов:
+        // поэлементное слияние потребовало бы около size сравнений
+        int half = 5000;
+        int block = 500;
+        Bus[] array = new Bus[2 * half];
+        for (int i = 0; i < half; i++) {
+            int blockIndex = i / block;
+            int offset = i % block;
+            array[i] = new Bus("L" + i, "Model", (2 * blockIndex) * block + offset);
+            array[half + i] = new Bus("R" + i, "Model", (2 * blockIndex + 1) * block + offset);
+        }
+
+        TimSortStrategy sorter = new TimSortStrategy(Comparator.comparingInt(Bus::getMileage), true);
+        sorter.merge(array, 0, half - 1, 2 * half - 1);
+
+        for (int i = 0; i < 2 * half; i++) {
+            assertEquals(i, array[i].getMileage());
+        }
+        assertTrue(sorter.getComparisonCount() < half / 4,
+                "Galloping should need far fewer comparisons, was " + sorter.getComparisonCount());
+    }
+
+    @Test
+    void testMerge_StableWithEqualKeysAcrossParts() {
+        Bus[] array = new Bus[200];
+        for (int i = 0; i < 100; i++) {
+            array[i] = new Bus("L" + i, "Model", i / 10);
+            array[100 + i] = new Bus("R" + i, "Model", i / 10);
+        }
+        Bus[] expected = array.clone();
+        Arrays.sort(expected, Comparator.comparingInt(Bus::getMileage));
+
+        mileageSorter.merge(array, 0, 99, 199);
+        for (int i = 0; i < array.length; i++) {
+            assertSame(expected[i], array[i]);
+        }
+    }
+
+    @Test
+    void testComparisonCount_ResetBetweenSorts() {
+        Bus[] array = {bus1, bus2, bus3, bus4, bus5};
+        mileageSorter.sort(array);
+        long first = mileageSorter.getComparisonCount();
+        assertTrue(first > 0);
+
+        mileageSorter.sort(array); // уже отсортирован - одна серия
+        assertEquals(array.length - 1, mileageSorter.getComparisonCount());
+    }
+
+    @Test
+    void testFixedBlocks_MatchesStableSortForOddAndEvenPassCounts() {
+        // 33..64 - один проход слияния (результат в буфере), 65..128 - два прохода
+        Random random = new Random(7);
+        TimSortStrategy sorter = new TimSortStrategy(Comparator.comparingInt(Bus::getMileage));
+        for (int size : new int[]{33, 64, 65, 128, 129, 1000, 4097}) {
+            Bus[] array = new Bus[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = new Bus("BUS" + i, "Model", random.nextInt(100));
+            }
+            Bus[] expected = array.clone();
+            Arrays.sort(expected, Comparator.comparingInt(Bus::getMileage));
+
+            Bus[] result = sorter.sort(array);
+            assertSame(array, result);
+            for (int i = 0; i < size; i++) {
+                assertSame(expected[i], array[i]);
+            }
+        }
+    }
+
+    @Test
+    void testSort_SameInstanceReusedForSeveralArrays() {
+        TimSortStrategy sorter = new TimSortStrategy(Comparator.comparingInt(Bus::getMileage), true);
+        Random random = new Random(11);
+        for (int size : new int[]{5000, 100, 7000, 64}) {
+            Bus[] array = new Bus[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = new Bus("BUS" + i, "Model", random.nextInt(1000));
+            }
+            sorter.sort(array);
+            for (int i = 1; i < size; i++) {
+                assertTrue(array[i - 1].getMileage() <= array[i].getMileage());
+            }
+        }
+    }
+
+    @Test
+    void testSortPermutation_MatchesStableSortAndKeepsArray() {
+        Random random = new Random(21);
+        for (int size : new int[]{0, 1, 2, 31, 32, 1000, 20_000}) {
+            Bus[] array = new Bus[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = new Bus("BUS" + i, "Model", random.nextInt(50));
+            }
+            Bus[] original = array.clone();
+            Bus[] expected = array.clone();
+            Arrays.sort(expected, Comparator.comparingInt(Bus::getMileage));
+
+            int[] permutation = mileageSorter.sortPermutation(array);
+            assertArrayEquals(original, array);
+            Bus[] sorted = SortStrategy.applyPermutation(array, permutation);
+            for (int i = 0; i < size; i++) {
+                assertSame(expected[i], sorted[i], "size " + size + ", index " + i);
+            }
+        }
+    }
+
+    @Test
+    void testSortPermutation_PresortedAndReversedRuns() {
+        Bus[] array = new Bus[5000];
+        for (int i = 0; i < array.length; i++) {
+            // Чередуются длинные возрастающие и убывающие серии
+            int block = i / 500;
+            array[i] = new Bus("BUS" + i, "Model", block % 2 == 0 ? i : 100_000 - i);
+        }
+        Bus[] expected = array.clone();
+        Arrays.sort(expected, Comparator.comparingInt(Bus::getMileage));
+
+        assertArrayEquals(expected, SortStrategy.applyPermutation(array, mileageSorter.sortPermutation(array)));
+    }
+
+    @Test
+    void testSortPermutation_SharedArrayFromSeveralThreads() throws InterruptedException {
+        Random random = new Random(5);
+        Bus[] shared = new Bus[50_000];
+        for (int i = 0; i < shared.length; i++) {
+            shared[i] = new Bus("BUS" + random.nextInt(1000), "Model", random.nextInt(1000));
+        }
+        Bus[] expected = shared.clone();
+        Arrays.sort(expected, Comparator.comparingInt(Bus::getMileage));
+
+        // Один экземпляр стратегии на все потоки
+        int[][] results = new int[4][];
+        Thread[] threads = new Thread[results.length];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> results[index] = mileageSorter.sortPermutation(shared));
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int[] permutation : results) {
+            assertArrayEquals(expected, SortStrategy.applyPermutation(shared, permutation));
+        }
+    }
+
+    private static Bus[] uniqueRandomBuses(int size, long seed) {
+        Random random = new Random(seed);
+        Bus[] array = new Bus[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = new Bus("BUS" + i, "Model", random.nextInt(1_000_000));
+        }
+        return array;
+    }
+
+    @Test
+    void testSortWithControl_CancelMidwayLeavesPermutation() {
+        for (boolean natural : new boolean[]{true, false}) {
+            Bus[] original = uniqueRandomBuses(300_000, 1);
+            Bus[] array = original.clone();
+            TimSortStrategy sorter = new TimSortStrategy(Comparator.comparingInt(Bus::getMileage), natural);
+            SortControl[] holder = new SortControl[1];
+            holder[0] = new SortControl(null, (done, total) -> {
+                if (done * 2 > total) {
+                    holder[0].cancel();
+                }
+            });
+            holder[0].start();
+
+            SortCancelledException exception = assertThrows(SortCancelledException.class,
+                    () -> sorter.sort(array, holder[0]));
+            assertFalse(exception.isTimedOut());
+            assertPermutationOf(original, array);
+        }
+    }
+
+    @Test
+    void testSortWithControl_DeadlineLeavesPermutation() {
+        Bus[] original = uniqueRandomBuses(100_000, 2);
+        Bus[] array = original.clone();
+        SortControl control = new SortControl(Duration.ZERO, null);
+        control.start();
+
+        SortCancelledException exception = assertThrows(SortCancelledException.class,
+                () -> new TimSortStrategy(Comparator.comparingInt(Bus::getMileage)).sort(array, control));
+        assertTrue(exception.isTimedOut());
+        assertPermutationOf(original, array);
+    }
+
+    @Test
+    void testSortWithControl_TimeLimitCountsFromCreationWithoutStart() {
+        Bus[] original = uniqueRandomBuses(100_000, 4);
+        Bus[] expected = original.clone();
+        Arrays.sort(expected, Comparator.comparingInt(Bus::getMileage));
+        // start() не вызывается: стратегию зовут напрямую, минуя SortingService
+        SortControl control = new SortControl(Duration.ofMinutes(5), null);
+
+        Bus[] result = new TimSortStrategy(Comparator.comparingInt(Bus::getMileage)).sort(original.clone(), control);
+        assertArrayEquals(expected, result);
+    }
+
+    @Test
+    void testSortWithControl_ProgressIsMonotonicAndReachesTotal() {
+        Bus[] array = uniqueRandomBuses(200_000, 3);
+        Bus[] expected = array.clone();
+        Arrays.sort(expected, Comparator.comparingInt(Bus::getMileage));
+        long[] last = {-1, 0};
+        SortControl control = new SortControl(Duration.ofMinutes(5), (done, total) -> {
+            assertTrue(done >= last[0] && done <= total);
+            last[0] = done;
+            last[1] = total;
+        });
+        control.start();
+
+        new TimSortStrategy(Comparator.comparingInt(Bus::getMileage), true).sort(array, control);
+        assertArrayEquals(expected, array);
+        assertEquals(last[1], last[0]);
+    }
+}
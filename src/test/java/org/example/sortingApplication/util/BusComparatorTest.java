@@ -135,4 +135,13 @@ class BusComparatorTest {
 
         assertEquals(0, comparator.compare(identical1, identical2));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCompare_MissingFieldsCountAsEqual() {
+        // InitComparator оставляет незаданные поля пустыми
+        Comparator<Bus> comparator = new BusComparator("модель", null, null);
+
+        assertEquals(0, comparator.compare(new Bus("A", "Volvo", 1), new Bus("B", "Volvo", 2)));
+        assertTrue(comparator.compare(new Bus("B", "MAN", 2), new Bus("A", "Volvo", 1)) < 0);
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.sortingApplication.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Сравнивает выбранную реализацию (в профиле vector - векторную) со скалярной
+ */
+class MileageKernelsTest {
+
+    private final MileageKernels kernels = MileageKernels.get();
+    private final MileageKernels scalar = MileageKernels.scalar();
+
+    private static int[] randomMileages(int size, Random random) {
+        int[] mileages = new int[size];
+        for (int i = 0; i < size; i++) {
+            mileages[i] = random.nextInt(2_000_000) - 500_000;
+        }
+        return mileages;
+    }
+
+    @Test
+    void testMinMax_AllLengths() {
+        Random random = new Random(1);
+        for (int size = 1; size <= 300; size++) {
+            int[] mileages = randomMileages(size + 5, random);
+            assertArrayEquals(scalar.minMax(mileages, size), kernels.minMax(mileages, size), "size " + size);
+        }
+    }
+
+    @Test
+    void testMinMax_Values() {
+        assertArrayEquals(new int[]{-3, 42}, kernels.minMax(new int[]{5, 42, -3, 7, 0}, 5));
+        assertArrayEquals(new int[]{5, 5}, kernels.minMax(new int[]{5, 42}, 1));
+    }
+
+    @Test
+    void testEvenMask_MatchesParity() {
+        Random random = new Random(2);
+        for (int size : new int[]{0, 1, 63, 64, 65, 128, 1000}) {
+            int[] mileages = randomMileages(size, random);
+            long[] words = new long[(size + 63) / 64];
+            kernels.evenMask(mileages, 0, size, words);
+            for (int i = 0; i < words.length * 64; i++) {
+                boolean bit = (words[i >>> 6] & (1L << i)) != 0;
+                assertEquals(i < size && mileages[i] % 2 == 0, bit, "size " + size + ", bit " + i);
+            }
+        }
+    }
+
+    @Test
+    void testEvenMask_RangeWritesOnlyItsWords() {
+        int[] mileages = randomMileages(1000, new Random(4));
+        for (int from : new int[]{0, 64, 320}) {
+            for (int to : new int[]{from, from + 1, from + 64, from + 130, 1000}) {
+                long[] words = new long[16];
+                Arrays.fill(words, -1L);
+                kernels.evenMask(mileages, from, to, words);
+                for (int i = 0; i < words.length * 64; i++) {
+                    boolean bit = (words[i >>> 6] & (1L << i)) != 0;
+                    boolean written = i >= from && (i >>> 6) < ((to + 63) >>> 6);
+                    boolean expected = written ? i < to && mileages[i] % 2 == 0 : true;
+                    assertEquals(expected, bit, "from " + from + ", to " + to + ", bit " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDigitHistogram_MatchesScalar() {
+        int[] mileages = randomMileages(5000, new Random(3));
+        for (int shift : new int[]{0, 11}) {
+            int[] expected = new int[1 << 11];
+            int[] actual = new int[1 << 11];
+            scalar.digitHistogram(mileages, 4999, -500_000, shift, (1 << 11) - 1, expected);
+            kernels.digitHistogram(mileages, 4999, -500_000, shift, (1 << 11) - 1, actual);
+            assertArrayEquals(expected, actual, "shift " + shift);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.sortingApplication.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.sortingApplication.domain.Bus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class SortKeyEncoderTest {
+
+    private static int signum(int value) {
+        return Integer.compare(value, 0);
+    }
+
+    private static void assertSameOrder(BusComparator comparator, Bus[] buses) {
+        SortKeyEncoder encoder = new SortKeyEncoder(comparator);
+        byte[][] keys = new byte[buses.length][];
+        for (int i = 0; i < buses.length; i++) {
+            keys[i] = encoder.encode(buses[i]);
+        }
+        for (int i = 0; i < buses.length; i++) {
+            for (int j = 0; j < buses.length; j++) {
+                assertEquals(signum(comparator.compare(buses[i], buses[j])),
+                        signum(Arrays.compareUnsigned(keys[i], keys[j])),
+                        buses[i] + " vs " + buses[j]);
+            }
+        }
+    }
+
+    @Test
+    void testEncode_PrefixStringsAndMileage() {
+        Bus[] buses = {
+                new Bus("AB", "Volvo", 10),
+                new Bus("AB1", "Volvo", 5),
+                new Bus("AB", "Volvo", -10),
+                new Bus("A", "Volvo", Integer.MAX_VALUE),
+                new Bus("", "Volvo", Integer.MIN_VALUE),
+                new Bus("A\u0000", "Volvo", 0),
+                new Bus("AB", "Volvo", 10)
+        };
+        assertSameOrder(new BusComparator("номер", "пробег", "модель"), buses);
+        assertSameOrder(new BusComparator("пробег", "номер", "модель"), buses);
+    }
+
+    @Test
+    void testEncode_CaseInsensitiveAndNonAsciiCharacters() {
+        Random random = new Random(1);
+        String[] models = {"ЛиАЗ", "лиаз", "ПАЗ", "MAN", "man", "µBus", "ΜBUS", "Ÿ-Bus", "ÿ-bus", "￿", "￾", "z"};
+        Bus[] buses = new Bus[60];
+        for (int i = 0; i < buses.length; i++) {
+            buses[i] = new Bus("N" + random.nextInt(5), models[random.nextInt(models.length)], random.nextInt(3));
+        }
+        assertSameOrder(new BusComparator("модель", "номер", "пробег", false), buses);
+        assertSameOrder(new BusComparator("модель", "номер", "пробег", true), buses);
+    }
+
+    @Test
+    void testEncode_EqualBusesGiveEqualKeys() {
+        SortKeyEncoder encoder = new SortKeyEncoder(new BusComparator("номер", "модель", "пробег", false));
+        assertArrayEquals(encoder.encode(new Bus("ab1", "VOLVO", 7)), encoder.encode(new Bus("AB1", "volvo", 7)));
+    }
+
+    @Test
+    void testPrefix_IsFirstEightBytesOfKey() {
+        SortKeyEncoder encoder = new SortKeyEncoder(new BusComparator("модель", "пробег", "номер", false));
+        Bus[] buses = {
+                new Bus("A1", "MAN", -5),
+                new Bus("A1", "", 0),
+                new Bus("A1", "Mercedes-Benz", 3),
+                new Bus("A1", "ЛиАЗ", 12)
+        };
+        for (Bus bus : buses) {
+            byte[] padded = Arrays.copyOf(encoder.encode(bus), 8);
+            long expected = 0;
+            for (byte b : padded) {
+                expected = (expected << 8) | (b & 0xFF);
+            }
+            assertEquals(expected, encoder.prefix(bus), bus.toString());
+        }
+    }
+
+    @Test
+    void testEncode_UnknownField() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new SortKeyEncoder(new BusComparator("цвет", "номер", "модель")));
+        assertTrue(exception.getMessage().contains("Unknown field"));
+    }
+}